@@ -1,6 +1,9 @@
 package com.elened.inteduweb.config;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Inteduweb.
@@ -9,4 +12,835 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link io.github.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+    private final Security security = new Security();
+
+    private final Cache cache = new Cache();
+
+    private final UserImport userImport = new UserImport();
+
+    private final UserPurge userPurge = new UserPurge();
+
+    private final AuditRetention auditRetention = new AuditRetention();
+
+    private final AuditWriter auditWriter = new AuditWriter();
+
+    private final AuditRollup auditRollup = new AuditRollup();
+
+    private final AuditPolicy auditPolicy = new AuditPolicy();
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public UserImport getUserImport() {
+        return userImport;
+    }
+
+    public UserPurge getUserPurge() {
+        return userPurge;
+    }
+
+    public AuditRetention getAuditRetention() {
+        return auditRetention;
+    }
+
+    public AuditWriter getAuditWriter() {
+        return auditWriter;
+    }
+
+    public AuditRollup getAuditRollup() {
+        return auditRollup;
+    }
+
+    public AuditPolicy getAuditPolicy() {
+        return auditPolicy;
+    }
+
+    public static class Security {
+        private final TokenCache tokenCache = new TokenCache();
+
+        private final CredentialCache credentialCache = new CredentialCache();
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        private final RateLimit rateLimit = new RateLimit();
+
+        private final TokenRevocation tokenRevocation = new TokenRevocation();
+
+        public TokenCache getTokenCache() {
+            return tokenCache;
+        }
+
+        public CredentialCache getCredentialCache() {
+            return credentialCache;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+
+        public TokenRevocation getTokenRevocation() {
+            return tokenRevocation;
+        }
+
+        /**
+         * Cache of already verified JWT tokens, see {@link com.elened.inteduweb.security.jwt.TokenProvider}.
+         */
+        public static class TokenCache {
+            private boolean enabled = true;
+
+            private int maxEntries = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        /**
+         * Cache of successfully verified credentials, see {@link com.elened.inteduweb.security.AuthenticatedCredentialCache}.
+         */
+        public static class CredentialCache {
+            private boolean enabled = false;
+
+            private long timeToLiveSeconds = 300;
+
+            private int maxEntries = 1000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        /**
+         * Dedicated password hashing stage, see {@link com.elened.inteduweb.security.BoundedPasswordEncoder}.
+         */
+        public static class PasswordHashing {
+            private int concurrency = Runtime.getRuntime().availableProcessors();
+
+            private int queueCapacity = 100;
+
+            private long maxWaitMillis = 5000;
+
+            private long retryAfterSeconds = 1;
+
+            private int strength = 10;
+
+            private long targetLatencyMillis = 0;
+
+            private int minStrength = 10;
+
+            private int maxStrength = 14;
+
+            public int getConcurrency() {
+                return concurrency;
+            }
+
+            public void setConcurrency(int concurrency) {
+                this.concurrency = concurrency;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public long getMaxWaitMillis() {
+                return maxWaitMillis;
+            }
+
+            public void setMaxWaitMillis(long maxWaitMillis) {
+                this.maxWaitMillis = maxWaitMillis;
+            }
+
+            public long getRetryAfterSeconds() {
+                return retryAfterSeconds;
+            }
+
+            public void setRetryAfterSeconds(long retryAfterSeconds) {
+                this.retryAfterSeconds = retryAfterSeconds;
+            }
+
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            public long getTargetLatencyMillis() {
+                return targetLatencyMillis;
+            }
+
+            public void setTargetLatencyMillis(long targetLatencyMillis) {
+                this.targetLatencyMillis = targetLatencyMillis;
+            }
+
+            public int getMinStrength() {
+                return minStrength;
+            }
+
+            public void setMinStrength(int minStrength) {
+                this.minStrength = minStrength;
+            }
+
+            public int getMaxStrength() {
+                return maxStrength;
+            }
+
+            public void setMaxStrength(int maxStrength) {
+                this.maxStrength = maxStrength;
+            }
+        }
+
+        /**
+         * Rate limits of the authentication endpoints, see {@link com.elened.inteduweb.security.AuthenticationRateLimiter}.
+         */
+        public static class RateLimit {
+            private boolean enabled = true;
+
+            private int maxKeys = 100000;
+
+            /**
+             * Regular expression of the addresses of the proxies whose X-Forwarded-For header is trusted, empty by
+             * default to never trust the header: only the exact addresses of the proxies must be opted in.
+             */
+            private String trustedProxies;
+
+            private final Bucket address = new Bucket(20, 20);
+
+            private final Bucket account = new Bucket(10, 5);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxKeys() {
+                return maxKeys;
+            }
+
+            public void setMaxKeys(int maxKeys) {
+                this.maxKeys = maxKeys;
+            }
+
+            public String getTrustedProxies() {
+                return trustedProxies;
+            }
+
+            public void setTrustedProxies(String trustedProxies) {
+                this.trustedProxies = trustedProxies;
+            }
+
+            public Bucket getAddress() {
+                return address;
+            }
+
+            public Bucket getAccount() {
+                return account;
+            }
+
+            public static class Bucket {
+                private int capacity;
+
+                private int refillPerMinute;
+
+                public Bucket(int capacity, int refillPerMinute) {
+                    this.capacity = capacity;
+                    this.refillPerMinute = refillPerMinute;
+                }
+
+                public int getCapacity() {
+                    return capacity;
+                }
+
+                public void setCapacity(int capacity) {
+                    this.capacity = capacity;
+                }
+
+                public int getRefillPerMinute() {
+                    return refillPerMinute;
+                }
+
+                public void setRefillPerMinute(int refillPerMinute) {
+                    this.refillPerMinute = refillPerMinute;
+                }
+            }
+        }
+
+        /**
+         * In-memory filter of the revoked JWT tokens, see {@link com.elened.inteduweb.security.jwt.TokenRevocationStore}.
+         */
+        public static class TokenRevocation {
+            private int expectedInsertions = 100000;
+
+            private double falsePositiveProbability = 0.01;
+
+            public int getExpectedInsertions() {
+                return expectedInsertions;
+            }
+
+            public void setExpectedInsertions(int expectedInsertions) {
+                this.expectedInsertions = expectedInsertions;
+            }
+
+            public double getFalsePositiveProbability() {
+                return falsePositiveProbability;
+            }
+
+            public void setFalsePositiveProbability(double falsePositiveProbability) {
+                this.falsePositiveProbability = falsePositiveProbability;
+            }
+        }
+    }
+
+    public static class Cache {
+        private final Invalidation invalidation = new Invalidation();
+
+        private final Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Map<String, CacheSpec> getCaches() {
+            return caches;
+        }
+
+        /**
+         * Broadcast of the cache evictions to the other instances, see
+         * {@link com.elened.inteduweb.config.cache.InvalidatingCacheManager}.
+         */
+        public static class Invalidation {
+            private boolean enabled = false;
+
+            private long timeoutMillis = 2000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getTimeoutMillis() {
+                return timeoutMillis;
+            }
+
+            public void setTimeoutMillis(long timeoutMillis) {
+                this.timeoutMillis = timeoutMillis;
+            }
+        }
+
+        /**
+         * Preloading of the caches at startup, see {@link com.elened.inteduweb.service.CacheWarmUpService}.
+         */
+        public static class WarmUp {
+            private boolean enabled = true;
+
+            private int users = 1000;
+
+            private int parallelism = 4;
+
+            private long timeBudgetSeconds = 30;
+
+            private boolean delayReadiness = false;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getUsers() {
+                return users;
+            }
+
+            public void setUsers(int users) {
+                this.users = users;
+            }
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public long getTimeBudgetSeconds() {
+                return timeBudgetSeconds;
+            }
+
+            public void setTimeBudgetSeconds(long timeBudgetSeconds) {
+                this.timeBudgetSeconds = timeBudgetSeconds;
+            }
+
+            public boolean isDelayReadiness() {
+                return delayReadiness;
+            }
+
+            public void setDelayReadiness(boolean delayReadiness) {
+                this.delayReadiness = delayReadiness;
+            }
+        }
+
+        /**
+         * Sizing and expiry of a single cache, overriding {@code jhipster.cache.ehcache}, see
+         * {@link CacheConfiguration}.
+         * <p>
+         * The heap tier is bounded either by {@code maxEntries} or by {@code heapSize}, and entries expire either after
+         * {@code timeToLiveSeconds} or after {@code timeToIdleSeconds}. Entries read more than {@code refreshAheadSeconds}
+         * after they were loaded are reloaded in the background, see
+         * {@link com.elened.inteduweb.config.cache.SingleFlightCacheManager}.
+         */
+        public static class CacheSpec {
+            private Long maxEntries;
+
+            private DataSize heapSize;
+
+            private DataSize offHeapSize;
+
+            private Long timeToLiveSeconds;
+
+            private Long timeToIdleSeconds;
+
+            private Long refreshAheadSeconds;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getTimeToIdleSeconds() {
+                return timeToIdleSeconds;
+            }
+
+            public void setTimeToIdleSeconds(Long timeToIdleSeconds) {
+                this.timeToIdleSeconds = timeToIdleSeconds;
+            }
+
+            public Long getRefreshAheadSeconds() {
+                return refreshAheadSeconds;
+            }
+
+            public void setRefreshAheadSeconds(Long refreshAheadSeconds) {
+                this.refreshAheadSeconds = refreshAheadSeconds;
+            }
+        }
+    }
+
+    /**
+     * Bulk import of users, see {@link com.elened.inteduweb.service.UserImportService}.
+     */
+    public static class UserImport {
+        private int chunkSize = 500;
+
+        private int jdbcBatchSize = 50;
+
+        private int maxReportedErrors = 1000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getJdbcBatchSize() {
+            return jdbcBatchSize;
+        }
+
+        public void setJdbcBatchSize(int jdbcBatchSize) {
+            this.jdbcBatchSize = jdbcBatchSize;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+
+    /**
+     * Nightly purge of the users who never activated their account, see
+     * {@link com.elened.inteduweb.service.UserPurgeService}.
+     */
+    public static class UserPurge {
+        private int chunkSize = 500;
+
+        private long notActivatedDays = 3;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public long getNotActivatedDays() {
+            return notActivatedDays;
+        }
+
+        public void setNotActivatedDays(long notActivatedDays) {
+            this.notActivatedDays = notActivatedDays;
+        }
+    }
+
+    /**
+     * Nightly deletion of the audit events older than {@code jhipster.audit-events.retention-period}, see
+     * {@link com.elened.inteduweb.service.AuditEventRetentionService}, and creation of the monthly partitions of the
+     * audit events when they are partitioned, see {@link com.elened.inteduweb.service.AuditEventPartitionService}.
+     */
+    public static class AuditRetention {
+        private int chunkSize = 1000;
+
+        private long pauseMillis = 100;
+
+        private int partitionsAhead = 3;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public long getPauseMillis() {
+            return pauseMillis;
+        }
+
+        public void setPauseMillis(long pauseMillis) {
+            this.pauseMillis = pauseMillis;
+        }
+
+        public int getPartitionsAhead() {
+            return partitionsAhead;
+        }
+
+        public void setPartitionsAhead(int partitionsAhead) {
+            this.partitionsAhead = partitionsAhead;
+        }
+    }
+
+    /**
+     * Buffered writes of the audit events, see {@link com.elened.inteduweb.repository.AuditEventWriter}.
+     */
+    public static class AuditWriter {
+        private boolean async = true;
+
+        private int queueCapacity = 10000;
+
+        private int batchSize = 100;
+
+        private long flushIntervalMillis = 1000;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+        private long maxBlockMillis = 100;
+
+        private int sampleRate = 10;
+
+        private long shutdownTimeoutMillis = 10000;
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getMaxBlockMillis() {
+            return maxBlockMillis;
+        }
+
+        public void setMaxBlockMillis(long maxBlockMillis) {
+            this.maxBlockMillis = maxBlockMillis;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getShutdownTimeoutMillis() {
+            return shutdownTimeoutMillis;
+        }
+
+        public void setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+            this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        }
+
+        /**
+         * What to do with a new event when the queue is full.
+         */
+        public enum OverflowPolicy {
+            /**
+             * Wait up to {@code maxBlockMillis} for the queue to have room, then drop the new event.
+             */
+            BLOCK,
+            /**
+             * Drop the oldest queued event.
+             */
+            DROP_OLDEST,
+            /**
+             * Keep one new event in {@code sampleRate}, in place of the oldest queued event, and drop the others.
+             */
+            SAMPLE
+        }
+    }
+
+    /**
+     * In-memory counts of the audit events by minute, hour and day, see
+     * {@link com.elened.inteduweb.config.audit.AuditEventRollups}.
+     */
+    public static class AuditRollup {
+        private int minutes = 60;
+
+        private int hours = 48;
+
+        private int days = 7;
+
+        private int principalCapacity = 100;
+
+        public int getMinutes() {
+            return minutes;
+        }
+
+        public void setMinutes(int minutes) {
+            this.minutes = minutes;
+        }
+
+        public int getHours() {
+            return hours;
+        }
+
+        public void setHours(int hours) {
+            this.hours = hours;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public void setDays(int days) {
+            this.days = days;
+        }
+
+        public int getPrincipalCapacity() {
+            return principalCapacity;
+        }
+
+        public void setPrincipalCapacity(int principalCapacity) {
+            this.principalCapacity = principalCapacity;
+        }
+    }
+
+    /**
+     * Which audit events of a type are written, see {@link com.elened.inteduweb.repository.AuditEventPolicy}. The types
+     * without a policy are all written.
+     */
+    public static class AuditPolicy {
+        private final Map<String, TypePolicy> types = new LinkedHashMap<>();
+
+        private int maxCollapsed = 10000;
+
+        public AuditPolicy() {
+            // Spring Security publishes one for every denied request, e.g. each time a token expires
+            TypePolicy authorizationFailure = new TypePolicy();
+            authorizationFailure.setMode(TypePolicy.Mode.DROP);
+            types.put("AUTHORIZATION_FAILURE", authorizationFailure);
+        }
+
+        public Map<String, TypePolicy> getTypes() {
+            return types;
+        }
+
+        public int getMaxCollapsed() {
+            return maxCollapsed;
+        }
+
+        public void setMaxCollapsed(int maxCollapsed) {
+            this.maxCollapsed = maxCollapsed;
+        }
+
+        public static class TypePolicy {
+            private Mode mode = Mode.PERSIST;
+
+            private int sampleRate = 10;
+
+            private long windowSeconds = 60;
+
+            public Mode getMode() {
+                return mode;
+            }
+
+            public void setMode(Mode mode) {
+                this.mode = mode;
+            }
+
+            public int getSampleRate() {
+                return sampleRate;
+            }
+
+            public void setSampleRate(int sampleRate) {
+                this.sampleRate = sampleRate;
+            }
+
+            public long getWindowSeconds() {
+                return windowSeconds;
+            }
+
+            public void setWindowSeconds(long windowSeconds) {
+                this.windowSeconds = windowSeconds;
+            }
+
+            /**
+             * Which events of the type are written.
+             */
+            public enum Mode {
+                /**
+                 * All of them.
+                 */
+                PERSIST,
+                /**
+                 * One in {@code sampleRate}, with the rate in its data.
+                 */
+                SAMPLE,
+                /**
+                 * The first one of a principal, once {@code windowSeconds} have passed, with the number of events of the
+                 * principal in that window in its data.
+                 */
+                COLLAPSE,
+                /**
+                 * None of them.
+                 */
+                DROP
+            }
+        }
+    }
+}
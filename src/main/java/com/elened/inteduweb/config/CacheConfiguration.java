@@ -1,16 +1,41 @@
 package com.elened.inteduweb.config;
 
+import com.elened.inteduweb.config.cache.CacheInvalidationPublisher;
+import com.elened.inteduweb.config.cache.CacheSizeMeterBinder;
+import com.elened.inteduweb.config.cache.DiscoveryCacheInvalidationPublisher;
+import com.elened.inteduweb.config.cache.InvalidatingCacheManager;
+import com.elened.inteduweb.config.cache.RefreshAheadLoader;
+import com.elened.inteduweb.config.cache.SingleFlightCacheManager;
+import com.elened.inteduweb.security.jwt.TokenProvider;
 import io.github.jhipster.config.JHipsterProperties;
 import io.github.jhipster.config.cache.PrefixedKeyGenerator;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.io.Serializable;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
 import org.ehcache.jsr107.Eh107Configuration;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.cloud.client.ServiceInstance;
@@ -24,9 +49,14 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.CacheSpec> cacheSpecs;
+    private final Set<String> cacheNames = new HashSet<>();
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheSpecs = applicationProperties.getCache().getCaches();
+        cacheSpecs.forEach(CacheConfiguration::validate);
 
         jcacheConfiguration =
             Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -51,13 +81,188 @@ public class CacheConfiguration {
             createCache(cm, com.elened.inteduweb.domain.Authority.class.getName());
             createCache(cm, com.elened.inteduweb.domain.User.class.getName() + ".authorities");
             // jhipster-needle-ehcache-add-entry
+            Set<String> unknownCacheNames = new HashSet<>(cacheSpecs.keySet());
+            unknownCacheNames.removeAll(cacheNames);
+            if (!unknownCacheNames.isEmpty()) {
+                throw new IllegalStateException("Unknown caches in application.cache.caches: " + unknownCacheNames);
+            }
         };
     }
 
+    /**
+     * Register the number of entries and the estimated footprint of every cache, next to the hits, misses, puts and
+     * evictions registered by Spring Boot from the JCache statistics.
+     */
+    @Bean
+    public CacheSizeMeterBinder cacheSizeMeterBinder(javax.cache.CacheManager cacheManager) {
+        return new CacheSizeMeterBinder(cacheManager, "cacheManager", Duration.ofSeconds(30).toMillis());
+    }
+
+    /**
+     * Bind the JCache statistics of caches wrapped by the {@link InvalidatingCacheManager}, which Spring Boot does not
+     * recognize as JCache caches.
+     */
+    @Bean
+    public CacheMeterBinderProvider<Cache> wrappedJCacheMeterBinderProvider() {
+        return (cache, tags) -> {
+            Object nativeCache = cache.getNativeCache();
+            if (nativeCache instanceof javax.cache.Cache) {
+                return new JCacheMetrics((javax.cache.Cache<?, ?>) nativeCache, tags);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Wrap the Spring cache manager so that concurrent loads of a key are coalesced, and, when enabled, so that its
+     * evictions are broadcast to the other instances.
+     */
+    @Bean
+    public static BeanPostProcessor cacheManagerPostProcessor(
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        @Qualifier("taskExecutor") ObjectProvider<Executor> taskExecutor,
+        ObjectProvider<CacheInvalidationPublisher> publisher,
+        ObjectProvider<RefreshAheadLoader> refreshAheadLoaders
+    ) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (
+                    !(bean instanceof CacheManager) || bean instanceof SingleFlightCacheManager || bean instanceof InvalidatingCacheManager
+                ) {
+                    return bean;
+                }
+                ApplicationProperties.Cache cacheProperties = applicationProperties.getObject().getCache();
+                Map<String, Long> refreshAheadMillis = new HashMap<>();
+                cacheProperties
+                    .getCaches()
+                    .forEach(
+                        (cacheName, cacheSpec) -> {
+                            if (cacheSpec.getRefreshAheadSeconds() != null) {
+                                refreshAheadMillis.put(cacheName, Duration.ofSeconds(cacheSpec.getRefreshAheadSeconds()).toMillis());
+                            }
+                        }
+                    );
+                CacheManager cacheManager = new SingleFlightCacheManager(
+                    (CacheManager) bean,
+                    refreshAheadMillis,
+                    // The loaders depend on the repositories, which depend on the cache manager: they are looked up late
+                    cacheName ->
+                        refreshAheadLoaders.stream().filter(loader -> cacheName.equals(loader.getCacheName())).findFirst().orElse(null),
+                    command -> taskExecutor.getObject().execute(command)
+                );
+                if (cacheProperties.getInvalidation().isEnabled()) {
+                    cacheManager = new InvalidatingCacheManager(cacheManager, publisher);
+                }
+                return cacheManager;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.cache.invalidation", name = "enabled", havingValue = "true")
+    public CacheInvalidationPublisher cacheInvalidationPublisher(
+        DiscoveryClient discoveryClient,
+        Registration registration,
+        TokenProvider tokenProvider,
+        RestTemplateBuilder restTemplateBuilder,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties
+    ) {
+        Duration timeout = Duration.ofMillis(applicationProperties.getCache().getInvalidation().getTimeoutMillis());
+        return new DiscoveryCacheInvalidationPublisher(
+            discoveryClient,
+            registration,
+            tokenProvider,
+            restTemplateBuilder.setConnectTimeout(timeout).setReadTimeout(timeout).build(),
+            executor,
+            Duration.ofSeconds(jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds())
+        );
+    }
+
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        cacheNames.add(cacheName);
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache == null) {
-            cm.createCache(cacheName, jcacheConfiguration);
+            ApplicationProperties.Cache.CacheSpec cacheSpec = cacheSpecs.get(cacheName);
+            if (cacheSpec == null) {
+                cm.createCache(cacheName, jcacheConfiguration);
+            } else {
+                cm.createCache(cacheName, buildConfiguration(cacheSpec));
+            }
+        }
+        cm.enableStatistics(cacheName, true);
+    }
+
+    private javax.cache.configuration.Configuration<?, ?> buildConfiguration(ApplicationProperties.Cache.CacheSpec cacheSpec) {
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder();
+        if (cacheSpec.getHeapSize() != null) {
+            resourcePools = resourcePools.heap(cacheSpec.getHeapSize().toBytes(), MemoryUnit.B);
+        } else {
+            long maxEntries = cacheSpec.getMaxEntries() != null ? cacheSpec.getMaxEntries() : ehcache.getMaxEntries();
+            resourcePools = resourcePools.heap(maxEntries, EntryUnit.ENTRIES);
+        }
+        ExpiryPolicy<Object, Object> expiry;
+        if (cacheSpec.getTimeToIdleSeconds() != null) {
+            expiry = ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(cacheSpec.getTimeToIdleSeconds()));
+        } else {
+            long timeToLiveSeconds = cacheSpec.getTimeToLiveSeconds() != null
+                ? cacheSpec.getTimeToLiveSeconds()
+                : ehcache.getTimeToLiveSeconds();
+            expiry = ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds));
+        }
+        if (cacheSpec.getOffHeapSize() == null) {
+            return Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools).withExpiry(expiry).build()
+            );
+        }
+        // Off-heap entries are stored serialized
+        resourcePools = resourcePools.offheap(cacheSpec.getOffHeapSize().toBytes(), MemoryUnit.B);
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Serializable.class, Serializable.class, resourcePools)
+                .withExpiry(expiry)
+                .build()
+        );
+    }
+
+    static void validate(String cacheName, ApplicationProperties.Cache.CacheSpec cacheSpec) {
+        String prefix = "Invalid application.cache.caches." + cacheName + ": ";
+        if (cacheSpec.getMaxEntries() != null && cacheSpec.getHeapSize() != null) {
+            throw new IllegalStateException(prefix + "max-entries and heap-size cannot be used together");
+        }
+        if (cacheSpec.getTimeToLiveSeconds() != null && cacheSpec.getTimeToIdleSeconds() != null) {
+            throw new IllegalStateException(prefix + "time-to-live-seconds and time-to-idle-seconds cannot be used together");
+        }
+        if (cacheSpec.getMaxEntries() != null && cacheSpec.getMaxEntries() <= 0) {
+            throw new IllegalStateException(prefix + "max-entries must be positive");
+        }
+        if (cacheSpec.getHeapSize() != null && cacheSpec.getHeapSize().toBytes() <= 0) {
+            throw new IllegalStateException(prefix + "heap-size must be positive");
+        }
+        if (cacheSpec.getTimeToLiveSeconds() != null && cacheSpec.getTimeToLiveSeconds() <= 0) {
+            throw new IllegalStateException(prefix + "time-to-live-seconds must be positive");
+        }
+        if (cacheSpec.getTimeToIdleSeconds() != null && cacheSpec.getTimeToIdleSeconds() <= 0) {
+            throw new IllegalStateException(prefix + "time-to-idle-seconds must be positive");
+        }
+        if (cacheSpec.getRefreshAheadSeconds() != null) {
+            if (cacheSpec.getRefreshAheadSeconds() <= 0) {
+                throw new IllegalStateException(prefix + "refresh-ahead-seconds must be positive");
+            }
+            if (cacheSpec.getTimeToLiveSeconds() != null && cacheSpec.getRefreshAheadSeconds() >= cacheSpec.getTimeToLiveSeconds()) {
+                throw new IllegalStateException(prefix + "refresh-ahead-seconds must be lower than time-to-live-seconds");
+            }
+        }
+        if (cacheSpec.getOffHeapSize() != null) {
+            if (cacheSpec.getOffHeapSize().toMegabytes() < 1) {
+                throw new IllegalStateException(prefix + "off-heap-size must be at least 1MB");
+            }
+            if (cacheSpec.getHeapSize() != null && cacheSpec.getOffHeapSize().compareTo(cacheSpec.getHeapSize()) <= 0) {
+                throw new IllegalStateException(prefix + "off-heap-size must be larger than heap-size");
+            }
         }
     }
 
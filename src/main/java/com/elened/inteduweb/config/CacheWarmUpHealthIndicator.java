@@ -0,0 +1,32 @@
+package com.elened.inteduweb.config;
+
+import com.elened.inteduweb.service.CacheWarmUpService;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the progress of the cache warm-up, and keeps the instance out of service until it is over when
+ * {@code application.cache.warm-up.delay-readiness} is set.
+ */
+@Component
+public class CacheWarmUpHealthIndicator extends AbstractHealthIndicator {
+    private final CacheWarmUpService cacheWarmUpService;
+
+    private final boolean delayReadiness;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService, ApplicationProperties applicationProperties) {
+        this.cacheWarmUpService = cacheWarmUpService;
+        this.delayReadiness = applicationProperties.getCache().getWarmUp().isDelayReadiness();
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        builder.withDetail("progress", cacheWarmUpService.getProgress());
+        if (delayReadiness && !cacheWarmUpService.isFinished()) {
+            builder.outOfService();
+        } else {
+            builder.up();
+        }
+    }
+}
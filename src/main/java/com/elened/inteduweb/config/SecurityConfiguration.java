@@ -2,16 +2,19 @@ package com.elened.inteduweb.config;
 
 import com.elened.inteduweb.security.*;
 import com.elened.inteduweb.security.jwt.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
@@ -34,8 +37,27 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        CalibratedBCryptPasswordEncoder bCryptPasswordEncoder = CalibratedBCryptPasswordEncoder.create(
+            applicationProperties.getSecurity().getPasswordHashing()
+        );
+        bCryptPasswordEncoder.bindTo(meterRegistry);
+        return new BoundedPasswordEncoder(bCryptPasswordEncoder, applicationProperties, meterRegistry);
+    }
+
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(
+        UserDetailsService userDetailsService,
+        UserDetailsPasswordService userDetailsPasswordService,
+        PasswordEncoder passwordEncoder,
+        AuthenticatedCredentialCache authenticatedCredentialCache
+    ) {
+        DaoAuthenticationProvider authenticationProvider = new CachingDaoAuthenticationProvider(authenticatedCredentialCache);
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        // Re-encode passwords hashed with a lower work factor on the next successful login
+        authenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        return authenticationProvider;
     }
 
     @Override
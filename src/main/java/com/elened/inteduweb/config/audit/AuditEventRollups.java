@@ -0,0 +1,306 @@
+package com.elened.inteduweb.config.audit;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts of the audit events by type and by principal, in minute, hour and day buckets, kept up to date as the events
+ * are added so the dashboards never have to scan the audit events.
+ * <p>
+ * Each granularity has a ring of buckets, reused once their time is over. The counts by type are exact and lock-free.
+ * Only the busiest principals of a bucket are tracked, with the "Space-Saving" algorithm: when
+ * {@code principalCapacity} principals are already tracked, a new one takes the place of the least active one and
+ * inherits its count, so the counts of the principals are upper bounds, but any principal behind more than
+ * 1/{@code principalCapacity} of the events of a bucket is always tracked.
+ * <p>
+ * The counts are local to this node: they are seeded with the events of all the nodes, but then only count the events
+ * added on this node. The live counts by type are also published as the {@code audit.events} counter, which the
+ * monitoring sums over the nodes for the rates of the whole cluster.
+ */
+@Component
+public class AuditEventRollups {
+    private final Map<Granularity, Ring> rings = new EnumMap<>(Granularity.class);
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Instant startedAt = Instant.now();
+
+    public AuditEventRollups(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.AuditRollup properties = applicationProperties.getAuditRollup();
+        this.meterRegistry = meterRegistry;
+        rings.put(Granularity.MINUTE, new Ring(Granularity.MINUTE, properties.getMinutes(), properties.getPrincipalCapacity()));
+        rings.put(Granularity.HOUR, new Ring(Granularity.HOUR, properties.getHours(), properties.getPrincipalCapacity()));
+        rings.put(Granularity.DAY, new Ring(Granularity.DAY, properties.getDays(), properties.getPrincipalCapacity()));
+    }
+
+    /**
+     * Count an event being added.
+     *
+     * @param type the type of the event.
+     * @param principal the principal of the event.
+     * @param timestamp the date of the event.
+     */
+    public void record(String type, String principal, Instant timestamp) {
+        add(type, principal, timestamp, 1);
+        counters
+            .computeIfAbsent(
+                type,
+                key -> Counter.builder("audit.events").tag("type", key).description("Audit events added").register(meterRegistry)
+            )
+            .increment();
+    }
+
+    /**
+     * Count an event which was added before the application started, see {@link #getStartedAt()}.
+     *
+     * @param type the type of the event.
+     * @param principal the principal of the event.
+     * @param timestamp the date of the event.
+     * @param weight the number of events the written event stands for, more than 1 if it was sampled or collapsed.
+     */
+    public void seed(String type, String principal, Instant timestamp, long weight) {
+        add(type, principal, timestamp, weight);
+    }
+
+    /**
+     * @return the date the events started to be counted as they are added: the older ones must be seeded.
+     */
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @param granularity the granularity of the buckets.
+     * @return the date of the start of the oldest bucket of the given granularity.
+     */
+    public Instant getWindowStart(Granularity granularity) {
+        Ring ring = rings.get(granularity);
+        return granularity.startOf(granularity.indexOf(Instant.now()) - ring.buckets.length() + 1);
+    }
+
+    /**
+     * Get the buckets of a granularity, from the oldest to the current one, including the ones without events.
+     *
+     * @param granularity the granularity of the buckets.
+     * @param top the maximum number of principals of each bucket to get, the busiest first.
+     * @return the buckets.
+     */
+    public List<Rollup> getRollups(Granularity granularity, int top) {
+        Ring ring = rings.get(granularity);
+        long current = granularity.indexOf(Instant.now());
+        List<Rollup> rollups = new ArrayList<>(ring.buckets.length());
+        for (long index = current - ring.buckets.length() + 1; index <= current; index++) {
+            Bucket bucket = ring.buckets.get(ring.slotOf(index));
+            if (bucket != null && bucket.index == index) {
+                rollups.add(new Rollup(granularity.startOf(index), bucket.typeCounts(), bucket.principals.top(top)));
+            } else {
+                rollups.add(new Rollup(granularity.startOf(index), Collections.emptyMap(), Collections.emptyMap()));
+            }
+        }
+        return rollups;
+    }
+
+    private void add(String type, String principal, Instant timestamp, long weight) {
+        for (Ring ring : rings.values()) {
+            Bucket bucket = ring.bucketOf(ring.granularity.indexOf(timestamp));
+            if (bucket != null) {
+                bucket.types.computeIfAbsent(type, key -> new LongAdder()).add(weight);
+                bucket.principals.add(principal, weight);
+            }
+        }
+    }
+
+    /**
+     * Duration of the buckets.
+     */
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final long seconds;
+
+        Granularity(ChronoUnit unit) {
+            this.seconds = unit.getDuration().getSeconds();
+        }
+
+        private long indexOf(Instant timestamp) {
+            return Math.floorDiv(timestamp.getEpochSecond(), seconds);
+        }
+
+        private Instant startOf(long index) {
+            return Instant.ofEpochSecond(index * seconds);
+        }
+    }
+
+    /**
+     * Counts of the events of a bucket.
+     */
+    public static final class Rollup {
+        private final Instant start;
+
+        private final Map<String, Long> types;
+
+        private final Map<String, Long> principals;
+
+        private Rollup(Instant start, Map<String, Long> types, Map<String, Long> principals) {
+            this.start = start;
+            this.types = types;
+            this.principals = principals;
+        }
+
+        public Instant getStart() {
+            return start;
+        }
+
+        /**
+         * @return the number of events of each type.
+         */
+        public Map<String, Long> getTypes() {
+            return types;
+        }
+
+        /**
+         * @return the approximate number of events of the busiest principals, the busiest first.
+         */
+        public Map<String, Long> getPrincipals() {
+            return principals;
+        }
+    }
+
+    /**
+     * Buckets of a granularity, the bucket of a time being in the slot of its index modulo the size of the ring.
+     */
+    private static final class Ring {
+        private final Granularity granularity;
+
+        private final AtomicReferenceArray<Bucket> buckets;
+
+        private final int principalCapacity;
+
+        private Ring(Granularity granularity, int size, int principalCapacity) {
+            this.granularity = granularity;
+            this.buckets = new AtomicReferenceArray<>(Math.max(1, size));
+            this.principalCapacity = principalCapacity;
+        }
+
+        private int slotOf(long index) {
+            return (int) Math.floorMod(index, (long) buckets.length());
+        }
+
+        /**
+         * @return the bucket of an index, which replaces the expired bucket of its slot, or {@code null} if the index
+         * is older than the ring.
+         */
+        private Bucket bucketOf(long index) {
+            int slot = slotOf(index);
+            while (true) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket != null && bucket.index >= index) {
+                    return bucket.index == index ? bucket : null;
+                }
+                Bucket next = new Bucket(index, principalCapacity);
+                if (buckets.compareAndSet(slot, bucket, next)) {
+                    return next;
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final long index;
+
+        private final ConcurrentMap<String, LongAdder> types = new ConcurrentHashMap<>();
+
+        private final TopPrincipals principals;
+
+        private Bucket(long index, int principalCapacity) {
+            this.index = index;
+            this.principals = new TopPrincipals(principalCapacity);
+        }
+
+        private Map<String, Long> typeCounts() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            types.forEach((type, count) -> counts.put(type, count.sum()));
+            return counts;
+        }
+    }
+
+    /**
+     * Space-Saving summary of the busiest principals: counting the events of a tracked principal is lock-free, only replacing
+     * the least active one is synchronized.
+     */
+    private static final class TopPrincipals {
+        private final int capacity;
+
+        private final ConcurrentMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+        private TopPrincipals(int capacity) {
+            this.capacity = Math.max(1, capacity);
+        }
+
+        private void add(String principal, long weight) {
+            LongAdder count = counts.get(principal);
+            if (count == null && counts.size() < capacity) {
+                // Concurrent new principals may exceed the capacity by a few, which is harmless
+                count = counts.computeIfAbsent(principal, key -> new LongAdder());
+            } else if (count == null) {
+                count = replaceLeastActive(principal);
+            }
+            count.add(weight);
+        }
+
+        private synchronized LongAdder replaceLeastActive(String principal) {
+            LongAdder count = counts.get(principal);
+            if (count != null) {
+                return count;
+            }
+            String leastActive = null;
+            long min = Long.MAX_VALUE;
+            for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+                long sum = entry.getValue().sum();
+                if (sum < min) {
+                    leastActive = entry.getKey();
+                    min = sum;
+                }
+            }
+            count = new LongAdder();
+            if (leastActive != null) {
+                counts.remove(leastActive);
+                count.add(min);
+            }
+            counts.put(principal, count);
+            return count;
+        }
+
+        private Map<String, Long> top(int limit) {
+            Map<String, Long> sums = new HashMap<>();
+            counts.forEach((principal, count) -> sums.put(principal, count.sum()));
+            Map<String, Long> top = new LinkedHashMap<>();
+            sums
+                .entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+            return top;
+        }
+    }
+}
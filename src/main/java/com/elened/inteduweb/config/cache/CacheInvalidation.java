@@ -0,0 +1,66 @@
+package com.elened.inteduweb.config.cache;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Eviction of a cache entry, or of a whole cache when there is no key, sent to the other instances.
+ */
+public class CacheInvalidation implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String cacheName;
+
+    private String key;
+
+    public CacheInvalidation() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CacheInvalidation(String cacheName, String key) {
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public void setCacheName(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return Objects.equals(cacheName, that.cacheName) && Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cacheName, key);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CacheInvalidation{" +
+            "cacheName='" + cacheName + '\'' +
+            ", key='" + key + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,9 @@
+package com.elened.inteduweb.config.cache;
+
+/**
+ * Sends the evictions of the local caches to the other instances of the application.
+ */
+@FunctionalInterface
+public interface CacheInvalidationPublisher {
+    void publish(CacheInvalidation invalidation);
+}
@@ -0,0 +1,115 @@
+package com.elened.inteduweb.config.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import javax.cache.CacheManager;
+
+/**
+ * Registers the number of entries and the estimated memory footprint of every JCache cache, which the JCache
+ * statistics do not provide.
+ * <p>
+ * Both are computed by walking the Ehcache entries, so they are refreshed at most once per refresh interval. The
+ * footprint is estimated from the serialized size of a sample of the entries.
+ */
+public class CacheSizeMeterBinder implements MeterBinder {
+    private static final int SAMPLE_SIZE = 16;
+
+    private final CacheManager cacheManager;
+
+    private final String cacheManagerName;
+
+    private final long refreshIntervalMillis;
+
+    public CacheSizeMeterBinder(CacheManager cacheManager, String cacheManagerName, long refreshIntervalMillis) {
+        this.cacheManager = cacheManager;
+        this.cacheManagerName = cacheManagerName;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            javax.cache.Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            CacheSize size = new CacheSize(cache.unwrap(org.ehcache.Cache.class));
+            // Same tags as the cache meters registered by Spring Boot, so they show up together
+            Tags tags = Tags.of("cache", cacheName, "cacheManager", cacheManagerName, "name", cacheName);
+            Gauge
+                .builder("cache.size", size, CacheSize::getEntries)
+                .tags(tags)
+                .description("The number of entries in this cache")
+                .register(registry);
+            Gauge
+                .builder("cache.heap.bytes", size, CacheSize::getEstimatedBytes)
+                .tags(tags)
+                .description("The estimated memory used by the entries of this cache")
+                .baseUnit("bytes")
+                .register(registry);
+        }
+    }
+
+    private final class CacheSize {
+        private final org.ehcache.Cache<?, ?> cache;
+
+        private long refreshedAt;
+
+        private long entries;
+
+        private long estimatedBytes;
+
+        private CacheSize(org.ehcache.Cache<?, ?> cache) {
+            this.cache = cache;
+        }
+
+        private synchronized double getEntries() {
+            refreshIfNeeded();
+            return entries;
+        }
+
+        private synchronized double getEstimatedBytes() {
+            refreshIfNeeded();
+            return estimatedBytes;
+        }
+
+        private void refreshIfNeeded() {
+            long now = System.currentTimeMillis();
+            if (refreshedAt != 0 && now - refreshedAt < refreshIntervalMillis) {
+                return;
+            }
+            long count = 0;
+            long sampledBytes = 0;
+            int sampled = 0;
+            for (org.ehcache.Cache.Entry<?, ?> entry : cache) {
+                count++;
+                if (sampled < SAMPLE_SIZE) {
+                    sampledBytes += serializedSize(entry.getKey()) + serializedSize(entry.getValue());
+                    sampled++;
+                }
+            }
+            this.entries = count;
+            this.estimatedBytes = sampled == 0 ? 0 : sampledBytes * count / sampled;
+            this.refreshedAt = now;
+        }
+    }
+
+    private static long serializedSize(Object value) {
+        if (!(value instanceof Serializable)) {
+            return 0;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            return 0;
+        }
+        return bytes.size();
+    }
+}
@@ -0,0 +1,119 @@
+package com.elened.inteduweb.config.cache;
+
+import com.elened.inteduweb.config.Constants;
+import com.elened.inteduweb.security.AuthoritiesConstants;
+import com.elened.inteduweb.security.jwt.TokenProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Sends cache invalidations to the other instances registered in the service registry, on the
+ * {@code /management/cache-invalidations} endpoint.
+ * <p>
+ * Invalidations are sent asynchronously and on a best effort basis: an instance which cannot be reached keeps its
+ * entries until they expire.
+ * <p>
+ * The invalidations are authenticated with a JWT token of the system account, which is reused until half of its
+ * validity is over: the receiving instances verify and cache it once, instead of once per invalidation.
+ */
+public class DiscoveryCacheInvalidationPublisher implements CacheInvalidationPublisher {
+    static final String INVALIDATION_PATH = "/management/cache-invalidations";
+
+    private final Logger log = LoggerFactory.getLogger(DiscoveryCacheInvalidationPublisher.class);
+
+    private final DiscoveryClient discoveryClient;
+
+    private final Registration registration;
+
+    private final TokenProvider tokenProvider;
+
+    private final RestTemplate restTemplate;
+
+    private final Executor executor;
+
+    private final long tokenRenewalNanos;
+
+    private String token;
+
+    private long tokenCreatedAt;
+
+    private final Authentication systemAuthentication = new UsernamePasswordAuthenticationToken(
+        Constants.SYSTEM_ACCOUNT,
+        null,
+        Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN))
+    );
+
+    public DiscoveryCacheInvalidationPublisher(
+        DiscoveryClient discoveryClient,
+        Registration registration,
+        TokenProvider tokenProvider,
+        RestTemplate restTemplate,
+        Executor executor,
+        Duration tokenValidity
+    ) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.tokenProvider = tokenProvider;
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+        this.tokenRenewalNanos = tokenValidity.dividedBy(2).toNanos();
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        executor.execute(() -> send(invalidation));
+    }
+
+    private void send(CacheInvalidation invalidation) {
+        List<ServiceInstance> instances = discoveryClient.getInstances(registration.getServiceId());
+        if (instances.size() <= 1) {
+            return;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(getToken());
+        HttpEntity<CacheInvalidation> request = new HttpEntity<>(invalidation, headers);
+        for (ServiceInstance instance : instances) {
+            if (isSelf(instance)) {
+                continue;
+            }
+            URI uri = UriComponentsBuilder.fromUri(instance.getUri()).path(INVALIDATION_PATH).build().toUri();
+            try {
+                restTemplate.postForEntity(uri, request, Void.class);
+            } catch (RestClientException e) {
+                log.warn("Could not send {} to {}: {}", invalidation, uri, e.getMessage());
+            }
+        }
+    }
+
+    private synchronized String getToken() {
+        long now = System.nanoTime();
+        if (token == null || now - tokenCreatedAt >= tokenRenewalNanos) {
+            token = tokenProvider.createToken(systemAuthentication, false);
+            tokenCreatedAt = now;
+        }
+        return token;
+    }
+
+    private boolean isSelf(ServiceInstance instance) {
+        if (registration.getInstanceId() != null) {
+            return registration.getInstanceId().equals(instance.getInstanceId());
+        }
+        return registration.getHost().equals(instance.getHost()) && registration.getPort() == instance.getPort();
+    }
+}
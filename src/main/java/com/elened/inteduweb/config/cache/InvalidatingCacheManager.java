@@ -0,0 +1,176 @@
+package com.elened.inteduweb.config.cache;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link CacheManager} keeping the local caches as a near cache, and broadcasting their evictions to the other
+ * instances of the application.
+ * <p>
+ * Evictions made inside a transaction are broadcast after it commits, so that the other instances do not load the
+ * old value again before it is replaced. Invalidations received from the other instances are applied to the local
+ * caches only, so they are never sent back.
+ */
+public class InvalidatingCacheManager implements CacheManager {
+    private final Logger log = LoggerFactory.getLogger(InvalidatingCacheManager.class);
+
+    private final CacheManager delegate;
+
+    private final ObjectProvider<CacheInvalidationPublisher> publisher;
+
+    private final ConcurrentMap<String, InvalidatingCache> caches = new ConcurrentHashMap<>();
+
+    public InvalidatingCacheManager(CacheManager delegate, ObjectProvider<CacheInvalidationPublisher> publisher) {
+        this.delegate = delegate;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        InvalidatingCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new InvalidatingCache(target));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Apply an invalidation received from another instance to the local cache only.
+     *
+     * @param invalidation the invalidation.
+     */
+    public void invalidateLocally(CacheInvalidation invalidation) {
+        Cache cache = delegate.getCache(invalidation.getCacheName());
+        if (cache == null) {
+            log.debug("Ignoring invalidation of unknown cache {}", invalidation.getCacheName());
+            return;
+        }
+        if (invalidation.getKey() == null) {
+            cache.clear();
+        } else {
+            cache.evict(invalidation.getKey());
+        }
+    }
+
+    private void broadcast(String cacheName, Object key) {
+        // Only string keys can be sent as they are, other instances drop the whole cache for the other ones
+        CacheInvalidation invalidation = new CacheInvalidation(cacheName, key instanceof String ? (String) key : null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+
+                    @Override
+                    public void afterCommit() {
+                        publish(invalidation);
+                    }
+                }
+            );
+        } else {
+            publish(invalidation);
+        }
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        CacheInvalidationPublisher target = publisher.getIfAvailable();
+        if (target == null) {
+            return;
+        }
+        try {
+            target.publish(invalidation);
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    private final class InvalidatingCache implements Cache {
+        private final Cache target;
+
+        private InvalidatingCache(Cache target) {
+            this.target = target;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return target.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return target.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return target.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return target.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+            broadcast(getName(), key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean present = target.evictIfPresent(key);
+            // The entry may still be cached by the other instances
+            broadcast(getName(), key);
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            target.clear();
+            broadcast(getName(), null);
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean invalidated = target.invalidate();
+            broadcast(getName(), null);
+            return invalidated;
+        }
+    }
+}
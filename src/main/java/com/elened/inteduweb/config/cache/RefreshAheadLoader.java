@@ -0,0 +1,23 @@
+package com.elened.inteduweb.config.cache;
+
+/**
+ * Loader of the entries of a cache refreshed ahead by the {@link SingleFlightCacheManager}.
+ * <p>
+ * Refreshes run on a background thread, without the transaction, security context or request of the caller which
+ * read the stale entry, so they do not reuse the loader of its {@code @Cacheable} method: each cache refreshed ahead
+ * has a loader bean instead, which must not depend on that context. Caches without one are never refreshed ahead.
+ */
+public interface RefreshAheadLoader {
+    /**
+     * @return the name of the cache whose entries this loader reloads.
+     */
+    String getCacheName();
+
+    /**
+     * Load the current value of an entry, as its {@code @Cacheable} method would cache it.
+     *
+     * @param key the key of the entry.
+     * @return the value to cache.
+     */
+    Object load(Object key);
+}
@@ -0,0 +1,270 @@
+package com.elened.inteduweb.config.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * {@link CacheManager} coalescing the loads of a missing entry, so that only one caller runs the loader of a key
+ * while the others wait for its result.
+ * <p>
+ * This applies to {@code @Cacheable(sync = true)} methods, which load missing entries through
+ * {@link Cache#get(Object, Callable)}. The loader runs outside of any cache lock.
+ * <p>
+ * Caches with a refresh-ahead delay also remember when each entry was loaded: an entry read after that delay is still
+ * returned, and reloaded in the background by the {@link RefreshAheadLoader} of the cache, so that hot entries never
+ * expire under load.
+ */
+public class SingleFlightCacheManager implements CacheManager {
+    private final Logger log = LoggerFactory.getLogger(SingleFlightCacheManager.class);
+
+    private final CacheManager delegate;
+
+    private final Map<String, Long> refreshAheadMillis;
+
+    private final Function<String, RefreshAheadLoader> loaders;
+
+    private final Executor executor;
+
+    private final ConcurrentMap<String, SingleFlightCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate the cache manager holding the entries.
+     * @param refreshAheadMillis the refresh-ahead delay of each cache, caches without one are never refreshed ahead.
+     * @param loaders the loader of a cache by its name, or {@code null} if the cache has none, looked up on refresh.
+     * @param executor the executor running the background reloads.
+     */
+    public SingleFlightCacheManager(
+        CacheManager delegate,
+        Map<String, Long> refreshAheadMillis,
+        Function<String, RefreshAheadLoader> loaders,
+        Executor executor
+    ) {
+        this.delegate = delegate;
+        this.refreshAheadMillis = refreshAheadMillis;
+        this.loaders = loaders;
+        this.executor = executor;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        SingleFlightCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new SingleFlightCache(target, refreshAheadMillis.get(name)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * Value stored in caches with a refresh-ahead delay, with the time it was loaded.
+     */
+    static final class LoadedValue implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+
+        private final long loadedAt;
+
+        LoadedValue(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final class SingleFlightCache implements Cache {
+        private final Cache target;
+
+        private final Long refreshAfterMillis;
+
+        private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+        /**
+         * Incremented on every eviction, so that a load started before an eviction does not store an outdated value.
+         */
+        private final AtomicLong invalidations = new AtomicLong();
+
+        private SingleFlightCache(Cache target, Long refreshAfterMillis) {
+            this.target = target;
+            this.refreshAfterMillis = refreshAfterMillis;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            ValueWrapper wrapper = target.get(key);
+            if (wrapper == null || !(wrapper.get() instanceof LoadedValue)) {
+                return wrapper;
+            }
+            return new SimpleValueWrapper(((LoadedValue) wrapper.get()).value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            ValueWrapper wrapper = get(key);
+            Object value = wrapper != null ? wrapper.get() : null;
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper wrapper = target.get(key);
+            if (wrapper != null) {
+                Object value = wrapper.get();
+                if (value instanceof LoadedValue) {
+                    LoadedValue loaded = (LoadedValue) value;
+                    if (System.currentTimeMillis() - loaded.loadedAt >= refreshAfterMillis) {
+                        refresh(key);
+                    }
+                    return (T) loaded.value;
+                }
+                return (T) value;
+            }
+            CompletableFuture<Object> load = new CompletableFuture<>();
+            CompletableFuture<Object> running = loads.putIfAbsent(key, load);
+            if (running != null) {
+                return (T) await(key, valueLoader, running);
+            }
+            try {
+                // Another caller may have stored the value between the lookup and the registration of this load
+                ValueWrapper stored = get(key);
+                Object value = stored != null ? stored.get() : load(key, valueLoader);
+                load.complete(value);
+                return (T) value;
+            } catch (Exception e) {
+                load.completeExceptionally(e);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } finally {
+                loads.remove(key, load);
+            }
+        }
+
+        private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> running) {
+            try {
+                return running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } catch (ExecutionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        private Object load(Object key, Callable<?> valueLoader) throws Exception {
+            long invalidationCount = invalidations.get();
+            Object value = valueLoader.call();
+            if (invalidations.get() == invalidationCount) {
+                put(key, value);
+            }
+            return value;
+        }
+
+        private void refresh(Object key) {
+            RefreshAheadLoader loader = loaders.apply(getName());
+            if (loader == null) {
+                // The value loader of the caller depends on its context, the entry will be loaded again when it expires
+                return;
+            }
+            CompletableFuture<Object> refresh = new CompletableFuture<>();
+            if (loads.putIfAbsent(key, refresh) != null) {
+                return;
+            }
+            try {
+                executor.execute(
+                    () -> {
+                        try {
+                            refresh.complete(load(key, () -> loader.load(key)));
+                        } catch (Exception e) {
+                            log.debug("Could not refresh {} in cache {}: {}", key, getName(), e.getMessage());
+                            refresh.completeExceptionally(e);
+                        } finally {
+                            loads.remove(key, refresh);
+                        }
+                    }
+                );
+            } catch (RejectedExecutionException e) {
+                // The entry will be loaded again when it expires
+                loads.remove(key, refresh);
+                refresh.cancel(false);
+            }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, wrap(value));
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            ValueWrapper existing = target.putIfAbsent(key, wrap(value));
+            if (existing == null || !(existing.get() instanceof LoadedValue)) {
+                return existing;
+            }
+            return new SimpleValueWrapper(((LoadedValue) existing.get()).value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            invalidations.incrementAndGet();
+            target.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            invalidations.incrementAndGet();
+            return target.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            invalidations.incrementAndGet();
+            target.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            invalidations.incrementAndGet();
+            return target.invalidate();
+        }
+
+        private Object wrap(Object value) {
+            return refreshAfterMillis != null ? new LoadedValue(value, System.currentTimeMillis()) : value;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Cache specific code.
+ */
+package com.elened.inteduweb.config.cache;
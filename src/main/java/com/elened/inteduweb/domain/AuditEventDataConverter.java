@@ -0,0 +1,45 @@
+package com.elened.inteduweb.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashMap;
+import java.util.Map;
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores the data of a {@link PersistentAuditEvent} as a JSON object, in a jsonb column on PostgreSQL.
+ * <p>
+ * Empty data are stored as {@code null}.
+ */
+@Converter
+public class AuditEventDataConverter implements AttributeConverter<Map<String, String>, String> {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<HashMap<String, String>> DATA_TYPE = new TypeReference<HashMap<String, String>>() {};
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, String> data) {
+        if (data == null || data.isEmpty()) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not write the audit event data", e);
+        }
+    }
+
+    @Override
+    public Map<String, String> convertToEntityAttribute(String json) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+        try {
+            return OBJECT_MAPPER.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not read the audit event data", e);
+        }
+    }
+}
@@ -33,10 +33,8 @@ public class PersistentAuditEvent implements Serializable {
     @Column(name = "event_type")
     private String auditEventType;
 
-    @ElementCollection
-    @MapKeyColumn(name = "name")
-    @Column(name = "value")
-    @CollectionTable(name = "jhi_persistent_audit_evt_data", joinColumns = @JoinColumn(name = "event_id"))
+    @Convert(converter = AuditEventDataConverter.class)
+    @Column(name = "data")
     private Map<String, String> data = new HashMap<>();
 
     public Long getId() {
@@ -0,0 +1,85 @@
+package com.elened.inteduweb.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * Revokes every JWT token of a user issued until the "not before" date, e.g. after a password change, except the
+ * token whose "jti" claim is the exempt token id, if any.
+ */
+@Entity
+@Table(name = "jhi_user_token_cutoff")
+public class UserTokenCutoff implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 50)
+    @Id
+    @Column(length = 50)
+    private String login;
+
+    @NotNull
+    @Column(name = "not_before", nullable = false)
+    private Instant notBefore;
+
+    @Size(max = 64)
+    @Column(name = "exempt_token_id", length = 64)
+    private String exemptTokenId;
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Instant getNotBefore() {
+        return notBefore;
+    }
+
+    public void setNotBefore(Instant notBefore) {
+        this.notBefore = notBefore;
+    }
+
+    public String getExemptTokenId() {
+        return exemptTokenId;
+    }
+
+    public void setExemptTokenId(String exemptTokenId) {
+        this.exemptTokenId = exemptTokenId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserTokenCutoff)) {
+            return false;
+        }
+        return Objects.equals(login, ((UserTokenCutoff) o).login);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(login);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserTokenCutoff{" +
+            "login='" + login + '\'' +
+            ", notBefore=" + notBefore +
+            ", exemptTokenId='" + exemptTokenId + '\'' +
+            "}";
+    }
+}
@@ -0,0 +1,36 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Queries of the {@link PersistentAuditEvent} entity which Spring Data cannot derive, see
+ * {@link AuditEventKeysetRepositoryImpl}.
+ */
+public interface AuditEventKeysetRepository {
+    /**
+     * Get the audit events following a position in the order of their date then of their ID, seeking to that position
+     * with the index on {@code (event_date, event_id)}, or on {@code (event_type, event_date, event_id)} for a type,
+     * instead of skipping the previous rows with an offset.
+     *
+     * @param type the type of the events, or {@code null} for all types.
+     * @param fromDate the date the events happened at or after, or {@code null}.
+     * @param toDate the date the events happened before, or {@code null}.
+     * @param direction the direction of the order.
+     * @param afterDate the date of the last event already read, {@code null} for the first page.
+     * @param afterId the ID of the last event already read, {@code null} for the first page.
+     * @param limit the maximum number of events to get.
+     * @return the events following the position.
+     */
+    List<PersistentAuditEvent> findAllByAuditEventTypeAndAuditEventDateBetweenAfter(
+        String type,
+        Instant fromDate,
+        Instant toDate,
+        Sort.Direction direction,
+        Instant afterDate,
+        Long afterId,
+        int limit
+    );
+}
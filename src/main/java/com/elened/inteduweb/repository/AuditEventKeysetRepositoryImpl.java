@@ -0,0 +1,66 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Implementation of the {@link AuditEventKeysetRepository} fragment of the {@link PersistenceAuditEventRepository}.
+ */
+public class AuditEventKeysetRepositoryImpl implements AuditEventKeysetRepository {
+    private final EntityManager entityManager;
+
+    public AuditEventKeysetRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<PersistentAuditEvent> findAllByAuditEventTypeAndAuditEventDateBetweenAfter(
+        String type,
+        Instant fromDate,
+        Instant toDate,
+        Sort.Direction direction,
+        Instant afterDate,
+        Long afterId,
+        int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PersistentAuditEvent> query = cb.createQuery(PersistentAuditEvent.class);
+        Root<PersistentAuditEvent> event = query.from(PersistentAuditEvent.class);
+        Path<Instant> date = event.get("auditEventDate");
+        Path<Long> id = event.get("id");
+        boolean ascending = direction.isAscending();
+        List<Predicate> predicates = new ArrayList<>();
+        if (type != null) {
+            predicates.add(cb.equal(event.get("auditEventType"), type));
+        }
+        if (fromDate != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, fromDate));
+        }
+        if (toDate != null) {
+            predicates.add(cb.lessThan(date, toDate));
+        }
+        if (afterDate != null && afterId != null) {
+            // The first predicate is redundant, but lets the database start the index scan at the position
+            predicates.add(ascending ? cb.greaterThanOrEqualTo(date, afterDate) : cb.lessThanOrEqualTo(date, afterDate));
+            Predicate beyondDate = ascending ? cb.greaterThan(date, afterDate) : cb.lessThan(date, afterDate);
+            Predicate beyondId = ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+            predicates.add(cb.or(beyondDate, cb.and(cb.equal(date, afterDate), beyondId)));
+        } else {
+            predicates.add(cb.isNotNull(date));
+        }
+        query
+            .select(event)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(ascending ? cb.asc(date) : cb.desc(date), ascending ? cb.asc(id) : cb.desc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
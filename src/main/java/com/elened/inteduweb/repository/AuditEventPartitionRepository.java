@@ -0,0 +1,36 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Management of the monthly partitions of the {@link PersistentAuditEvent} table, when it was partitioned on
+ * PostgreSQL by the optional "audit-partitioning" Liquibase context, see {@link AuditEventPartitionRepositoryImpl}.
+ */
+public interface AuditEventPartitionRepository {
+    /**
+     * @return whether the audit events are partitioned by month.
+     */
+    boolean isPartitionedByMonth();
+
+    /**
+     * @return the months which have a partition, in chronological order.
+     */
+    List<YearMonth> findAllPartitionMonths();
+
+    /**
+     * Create the partition of a month, unless it already exists.
+     *
+     * @param month the month of the partition.
+     * @return whether the partition was created.
+     */
+    boolean createPartition(YearMonth month);
+
+    /**
+     * Drop the partition of a month with all its events, without deleting them row by row.
+     *
+     * @param month the month of the partition.
+     */
+    void dropPartition(YearMonth month);
+}
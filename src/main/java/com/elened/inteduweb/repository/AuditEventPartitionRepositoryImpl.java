@@ -0,0 +1,115 @@
+package com.elened.inteduweb.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+
+/**
+ * Implementation of the {@link AuditEventPartitionRepository} fragment of the {@link PersistenceAuditEventRepository}.
+ * <p>
+ * The partitions are named after their month, e.g. {@code jhi_persistent_audit_event_p202010}, so their bounds never
+ * have to be parsed from the catalog.
+ */
+public class AuditEventPartitionRepositoryImpl implements AuditEventPartitionRepository {
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final String AUDIT_EVENT_TABLE = "jhi_persistent_audit_event";
+
+    private static final String PARTITION_PREFIX = AUDIT_EVENT_TABLE + "_p";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile(Pattern.quote(PARTITION_PREFIX) + "(\\d{6})");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final EntityManager entityManager;
+
+    public AuditEventPartitionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public boolean isPartitionedByMonth() {
+        return entityManager
+            .unwrap(Session.class)
+            .doReturningWork(
+                connection -> {
+                    if (!POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName())) {
+                        return false;
+                    }
+                    try (
+                        PreparedStatement statement = connection.prepareStatement(
+                            "select relkind = 'p' from pg_class where oid = to_regclass('" + AUDIT_EVENT_TABLE + "')"
+                        );
+                        ResultSet resultSet = statement.executeQuery()
+                    ) {
+                        return resultSet.next() && resultSet.getBoolean(1);
+                    }
+                }
+            );
+    }
+
+    @Override
+    public List<YearMonth> findAllPartitionMonths() {
+        @SuppressWarnings("unchecked")
+        List<String> names = entityManager
+            .createNativeQuery(
+                "select child.relname from pg_inherits join pg_class child on child.oid = pg_inherits.inhrelid " +
+                "where pg_inherits.inhparent = to_regclass('" + AUDIT_EVENT_TABLE + "') order by child.relname"
+            )
+            .getResultList();
+        List<YearMonth> months = new ArrayList<>(names.size());
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.parse(matcher.group(1), PARTITION_SUFFIX));
+            }
+        }
+        return months;
+    }
+
+    @Override
+    public boolean createPartition(YearMonth month) {
+        if (findAllPartitionMonths().contains(month)) {
+            return false;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        executeDdl(
+            "create table if not exists " + partition(month) + " partition of " + AUDIT_EVENT_TABLE +
+            " for values from ('" + from + "') to ('" + to + "')"
+        );
+        return true;
+    }
+
+    @Override
+    public void dropPartition(YearMonth month) {
+        executeDdl("drop table if exists " + partition(month));
+    }
+
+    private void executeDdl(String ddl) {
+        entityManager
+            .unwrap(Session.class)
+            .doWork(
+                connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(ddl)) {
+                        statement.execute();
+                    }
+                }
+            );
+    }
+
+    /**
+     * @return the name of the partition of a month, which only holds digits after the table name.
+     */
+    private static String partition(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
@@ -0,0 +1,210 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.config.ApplicationProperties.AuditPolicy.TypePolicy;
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Policy deciding which audit events are written by the {@link AuditEventWriter}, according to the
+ * {@link ApplicationProperties.AuditPolicy} of their type.
+ * <p>
+ * A sampled event is written with its sample rate in its {@code sampleRate} data. A collapsed event is held until the
+ * window of its principal is over, then written with the number of events of the principal in that window in its
+ * {@code count} data: the other events of the window are only counted. The held events are written when the
+ * application shuts down.
+ */
+@Component
+public class AuditEventPolicy {
+    static final String SAMPLE_RATE = "sampleRate";
+
+    static final String COUNT = "count";
+
+    private static final TypePolicy PERSIST = new TypePolicy();
+
+    private final AuditEventWriter auditEventWriter;
+
+    private final ApplicationProperties.AuditPolicy properties;
+
+    private final ConcurrentMap<String, AtomicLong> sampled = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Key, Window> windows = new ConcurrentHashMap<>();
+
+    public AuditEventPolicy(AuditEventWriter auditEventWriter, ApplicationProperties applicationProperties) {
+        this.auditEventWriter = auditEventWriter;
+        this.properties = applicationProperties.getAuditPolicy();
+    }
+
+    /**
+     * @param type the type of the events.
+     * @return whether the events of the given type are dropped, and so neither written nor counted.
+     */
+    public boolean isDropped(String type) {
+        return properties.getTypes().getOrDefault(type, PERSIST).getMode() == TypePolicy.Mode.DROP;
+    }
+
+    /**
+     * Get the number of events a written event stands for, from its {@code count} or {@code sampleRate} data.
+     *
+     * @param data the data of the written event.
+     * @return the number of events, at least 1.
+     */
+    public static long weightOf(Map<String, String> data) {
+        if (data == null) {
+            return 1;
+        }
+        String weight = data.containsKey(COUNT) ? data.get(COUNT) : data.get(SAMPLE_RATE);
+        if (weight == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Long.parseLong(weight));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Write an event, unless the policy of its type says otherwise.
+     *
+     * @param event the event to write.
+     */
+    public void write(PersistentAuditEvent event) {
+        TypePolicy policy = properties.getTypes().getOrDefault(event.getAuditEventType(), PERSIST);
+        switch (policy.getMode()) {
+            case DROP:
+                return;
+            case SAMPLE:
+                int sampleRate = Math.max(1, policy.getSampleRate());
+                if (sampled.computeIfAbsent(event.getAuditEventType(), type -> new AtomicLong()).getAndIncrement() % sampleRate == 0) {
+                    event.getData().put(SAMPLE_RATE, Integer.toString(sampleRate));
+                    auditEventWriter.write(event);
+                }
+                return;
+            case COLLAPSE:
+                collapse(event, policy.getWindowSeconds());
+                return;
+            default:
+                auditEventWriter.write(event);
+        }
+    }
+
+    private void collapse(PersistentAuditEvent event, long windowSeconds) {
+        Key key = new Key(event.getAuditEventType(), event.getPrincipal());
+        if (windows.size() >= properties.getMaxCollapsed() && !windows.containsKey(key)) {
+            // Too many principals at once, their events are not held in memory
+            auditEventWriter.write(event);
+            return;
+        }
+        Instant end = event.getAuditEventDate().plusSeconds(windowSeconds);
+        Window[] expired = new Window[1];
+        windows.compute(
+            key,
+            (k, window) -> {
+                if (window != null && window.end.isAfter(event.getAuditEventDate())) {
+                    window.count++;
+                    return window;
+                }
+                expired[0] = window;
+                return new Window(event, end);
+            }
+        );
+        if (expired[0] != null) {
+            writeWindow(expired[0]);
+        }
+    }
+
+    /**
+     * Write the collapsed events whose window is over, every second.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void flushExpiredWindows() {
+        flushWindowsEndedBy(Instant.now());
+    }
+
+    /**
+     * Write all the collapsed events, without waiting for the end of their window.
+     */
+    @PreDestroy
+    public void flush() {
+        flushWindowsEndedBy(Instant.MAX);
+    }
+
+    void flushWindowsEndedBy(Instant date) {
+        List<Window> expired = new ArrayList<>();
+        for (Key key : windows.keySet()) {
+            windows.computeIfPresent(
+                key,
+                (k, window) -> {
+                    if (window.end.isAfter(date)) {
+                        return window;
+                    }
+                    expired.add(window);
+                    return null;
+                }
+            );
+        }
+        expired.forEach(this::writeWindow);
+    }
+
+    private void writeWindow(Window window) {
+        window.event.getData().put(COUNT, Long.toString(window.count));
+        auditEventWriter.write(window.event);
+    }
+
+    /**
+     * Type and principal of the events collapsed together.
+     */
+    private static final class Key {
+        private final String type;
+
+        private final String principal;
+
+        private Key(String type, String principal) {
+            this.type = type;
+            this.principal = principal;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return type.equals(key.type) && principal.equals(key.principal);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + principal.hashCode();
+        }
+    }
+
+    /**
+     * First event of a window, and the number of events in it, only changed in the atomic updates of the map.
+     */
+    private static final class Window {
+        private final PersistentAuditEvent event;
+
+        private final Instant end;
+
+        private long count = 1;
+
+        private Window(PersistentAuditEvent event, Instant end) {
+            this.event = event;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writer of the audit events, which keeps their inserts out of the authentication flow.
+ * <p>
+ * The events are added to a bounded lock-free queue, and a single background thread inserts them by batches, each in
+ * one transaction with JDBC batching: as soon as a batch is full, or after {@code flushIntervalMillis} otherwise. When
+ * the queue is full, the {@link ApplicationProperties.AuditWriter.OverflowPolicy} decides which event is dropped. The
+ * queue is flushed when the application shuts down.
+ * <p>
+ * With {@code application.audit-writer.async} disabled, the events are inserted right away, in a new transaction so
+ * that they are kept when the transaction of the caller rolls back, such as the one of a failed authentication.
+ */
+@Component
+public class AuditEventWriter {
+    private static final String EVENTS_METER_NAME = "audit.writer.events";
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventWriter.class);
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.AuditWriter properties;
+
+    private final Queue<PersistentAuditEvent> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of queued events, including the ones being added: {@link ConcurrentLinkedQueue#size()} is not constant time.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong overflows = new AtomicLong();
+
+    private final Timer flushDuration;
+
+    private final Counter writtenEvents;
+
+    private final Counter droppedEvents;
+
+    private final Counter failedEvents;
+
+    private volatile boolean running;
+
+    private volatile Thread flusher;
+
+    public AuditEventWriter(
+        PersistenceAuditEventRepository persistenceAuditEventRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // An event is never part of the transaction of the audited request, whether it is written by batch or not
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = applicationProperties.getAuditWriter();
+        this.flushDuration =
+            Timer
+                .builder("audit.writer.flush.duration")
+                .description("Duration of the inserts of a batch of audit events")
+                .register(meterRegistry);
+        this.writtenEvents =
+            Counter.builder(EVENTS_METER_NAME).tag("result", "written").description("Audit events added").register(meterRegistry);
+        this.droppedEvents =
+            Counter.builder(EVENTS_METER_NAME).tag("result", "dropped").description("Audit events added").register(meterRegistry);
+        this.failedEvents =
+            Counter.builder(EVENTS_METER_NAME).tag("result", "failed").description("Audit events added").register(meterRegistry);
+        Gauge
+            .builder("audit.writer.queue.depth", size, AtomicInteger::get)
+            .description("Audit events waiting to be written")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isAsync()) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "audit-writer");
+        thread.setDaemon(true);
+        flusher = thread;
+        thread.start();
+    }
+
+    /**
+     * Stop the background thread once it has written all the queued events, or after {@code shutdownTimeoutMillis}.
+     */
+    @PreDestroy
+    public void stop() {
+        Thread thread = flusher;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(properties.getShutdownTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn("Could not write {} audit events before shutting down", size.get());
+        }
+    }
+
+    /**
+     * Write an audit event, later unless the writer is synchronous.
+     *
+     * @param event the event to write.
+     */
+    public void write(PersistentAuditEvent event) {
+        if (!properties.isAsync()) {
+            transactionTemplate.execute(status -> persistenceAuditEventRepository.save(event));
+            writtenEvents.increment();
+            return;
+        }
+        if (!running || !enqueue(event)) {
+            droppedEvents.increment();
+            return;
+        }
+        if (size.get() >= properties.getBatchSize()) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * @return the number of events waiting to be written.
+     */
+    public int getQueueDepth() {
+        return size.get();
+    }
+
+    private boolean enqueue(PersistentAuditEvent event) {
+        if (reserve()) {
+            queue.offer(event);
+            return true;
+        }
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK:
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getMaxBlockMillis());
+                while (!reserve()) {
+                    if (!running || System.nanoTime() - deadline > 0) {
+                        return false;
+                    }
+                    LockSupport.unpark(flusher);
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+                queue.offer(event);
+                return true;
+            case SAMPLE:
+                if (overflows.incrementAndGet() % Math.max(1, properties.getSampleRate()) != 0) {
+                    return false;
+                }
+                return replaceOldest(event);
+            default:
+                return replaceOldest(event);
+        }
+    }
+
+    /**
+     * Take a place in the queue, unless it is full.
+     */
+    private boolean reserve() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= properties.getQueueCapacity()) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Queue an event in place of the oldest queued one, which is dropped.
+     */
+    private boolean replaceOldest(PersistentAuditEvent event) {
+        while (true) {
+            if (reserve()) {
+                queue.offer(event);
+                return true;
+            }
+            if (queue.poll() != null) {
+                // The new event takes the place of the oldest one, the size is unchanged
+                droppedEvents.increment();
+                queue.offer(event);
+                return true;
+            }
+            // The places are all reserved by events about to be queued
+            Thread.yield();
+        }
+    }
+
+    private void run() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMillis());
+        while (running) {
+            if (size.get() < properties.getBatchSize()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flush();
+        }
+        flush();
+    }
+
+    /**
+     * Write all the queued events, by batches.
+     */
+    private void flush() {
+        List<PersistentAuditEvent> batch;
+        do {
+            batch = new ArrayList<>(properties.getBatchSize());
+            PersistentAuditEvent event;
+            while (batch.size() < properties.getBatchSize() && (event = queue.poll()) != null) {
+                batch.add(event);
+                size.decrementAndGet();
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        } while (batch.size() == properties.getBatchSize());
+    }
+
+    private void writeBatch(List<PersistentAuditEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.execute(status -> persistenceAuditEventRepository.saveAll(batch));
+            writtenEvents.increment(batch.size());
+        } catch (RuntimeException e) {
+            // Retrying would only make the queue overflow while the database is unavailable
+            log.warn("Could not write {} audit events: {}", batch.size(), e.getMessage());
+            failedEvents.increment(batch.size());
+        } finally {
+            flushDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -2,41 +2,37 @@ package com.elened.inteduweb.repository;
 
 import com.elened.inteduweb.config.Constants;
 import com.elened.inteduweb.config.audit.AuditEventConverter;
+import com.elened.inteduweb.config.audit.AuditEventRollups;
 import com.elened.inteduweb.domain.PersistentAuditEvent;
 import java.time.Instant;
 import java.util.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * An implementation of Spring Boot's {@link AuditEventRepository}.
  */
 @Repository
 public class CustomAuditEventRepository implements AuditEventRepository {
-    private static final String AUTHORIZATION_FAILURE = "AUTHORIZATION_FAILURE";
-
-    /**
-     * Should be the same as in Liquibase migration.
-     */
-    protected static final int EVENT_DATA_COLUMN_MAX_LENGTH = 255;
-
     private final PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private final AuditEventConverter auditEventConverter;
 
-    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final AuditEventPolicy auditEventPolicy;
+
+    private final AuditEventRollups auditEventRollups;
 
     public CustomAuditEventRepository(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter
+        AuditEventConverter auditEventConverter,
+        AuditEventPolicy auditEventPolicy,
+        AuditEventRollups auditEventRollups
     ) {
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
+        this.auditEventPolicy = auditEventPolicy;
+        this.auditEventRollups = auditEventRollups;
     }
 
     @Override
@@ -49,44 +45,23 @@ public class CustomAuditEventRepository implements AuditEventRepository {
         return auditEventConverter.convertToAuditEvent(persistentAuditEvents);
     }
 
+    /**
+     * Add an event, which is written later by the {@link AuditEventWriter} if the {@link AuditEventPolicy} of its type
+     * keeps it: it may not be found right away, or at all, but it is counted by the {@link AuditEventRollups} at once,
+     * unless its type is dropped.
+     */
     @Override
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void add(AuditEvent event) {
-        if (!AUTHORIZATION_FAILURE.equals(event.getType()) && !Constants.ANONYMOUS_USER.equals(event.getPrincipal())) {
+        if (!Constants.ANONYMOUS_USER.equals(event.getPrincipal())) {
             PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
             persistentAuditEvent.setPrincipal(event.getPrincipal());
             persistentAuditEvent.setAuditEventType(event.getType());
             persistentAuditEvent.setAuditEventDate(event.getTimestamp());
-            Map<String, String> eventData = auditEventConverter.convertDataToStrings(event.getData());
-            persistentAuditEvent.setData(truncate(eventData));
-            persistenceAuditEventRepository.save(persistentAuditEvent);
-        }
-    }
-
-    /**
-     * Truncate event data that might exceed column length.
-     */
-    private Map<String, String> truncate(Map<String, String> data) {
-        Map<String, String> results = new HashMap<>();
-
-        if (data != null) {
-            for (Map.Entry<String, String> entry : data.entrySet()) {
-                String value = entry.getValue();
-                if (value != null) {
-                    int length = value.length();
-                    if (length > EVENT_DATA_COLUMN_MAX_LENGTH) {
-                        value = value.substring(0, EVENT_DATA_COLUMN_MAX_LENGTH);
-                        log.warn(
-                            "Event data for {} too long ({}) has been truncated to {}. Consider increasing column width.",
-                            entry.getKey(),
-                            length,
-                            EVENT_DATA_COLUMN_MAX_LENGTH
-                        );
-                    }
-                }
-                results.put(entry.getKey(), value);
+            persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
+            if (!auditEventPolicy.isDropped(event.getType())) {
+                auditEventRollups.record(event.getType(), event.getPrincipal(), event.getTimestamp());
+                auditEventPolicy.write(persistentAuditEvent);
             }
         }
-        return results;
     }
 }
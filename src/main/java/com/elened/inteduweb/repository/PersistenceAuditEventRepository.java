@@ -3,14 +3,21 @@ package com.elened.inteduweb.repository;
 import com.elened.inteduweb.domain.PersistentAuditEvent;
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Spring Data JPA repository for the {@link PersistentAuditEvent} entity.
  */
-public interface PersistenceAuditEventRepository extends JpaRepository<PersistentAuditEvent, Long> {
+public interface PersistenceAuditEventRepository
+    extends JpaRepository<PersistentAuditEvent, Long>, AuditEventKeysetRepository, AuditEventPartitionRepository {
     List<PersistentAuditEvent> findByPrincipal(String principal);
 
     List<PersistentAuditEvent> findByPrincipalAndAuditEventDateAfterAndAuditEventType(String principal, Instant after, String type);
@@ -18,4 +25,42 @@ public interface PersistenceAuditEventRepository extends JpaRepository<Persisten
     Page<PersistentAuditEvent> findAllByAuditEventDateBetween(Instant fromDate, Instant toDate, Pageable pageable);
 
     List<PersistentAuditEvent> findByAuditEventDateBefore(Instant before);
+
+    /**
+     * Stream the type, principal, date and data of the events between two dates, without loading the events: the stream
+     * must be closed, in the transaction it was opened in.
+     */
+    @QueryHints(
+        { @QueryHint(name = "org.hibernate.fetchSize", value = "1000"), @QueryHint(name = "org.hibernate.readOnly", value = "true") }
+    )
+    @Query(
+        "select event.auditEventType, event.principal, event.auditEventDate, event.data from PersistentAuditEvent event " +
+        "where event.auditEventDate >= :fromDate and event.auditEventDate < :toDate"
+    )
+    Stream<Object[]> streamAllTypesAndPrincipalsByAuditEventDateBetween(
+        @Param("fromDate") Instant fromDate,
+        @Param("toDate") Instant toDate
+    );
+
+    @Query("select max(event.id) from PersistentAuditEvent event where event.auditEventDate < :before")
+    Long findMaxIdByAuditEventDateBefore(@Param("before") Instant before);
+
+    @Query(
+        "select event.id from PersistentAuditEvent event " +
+        "where event.id > :afterId and event.id <= :maxId and event.auditEventDate < :before order by event.id"
+    )
+    List<Long> findAllIdsByIdBetweenAndAuditEventDateBefore(
+        @Param("afterId") long afterId,
+        @Param("maxId") long maxId,
+        @Param("before") Instant before,
+        Pageable pageable
+    );
+
+    @Modifying
+    @Query("delete from PersistentAuditEvent event where event.id > :afterId and event.id <= :lastId and event.auditEventDate < :before")
+    int deleteAllByIdBetweenAndAuditEventDateBefore(
+        @Param("afterId") long afterId,
+        @Param("lastId") long lastId,
+        @Param("before") Instant before
+    );
 }
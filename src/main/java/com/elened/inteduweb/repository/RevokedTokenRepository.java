@@ -0,0 +1,23 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.RevokedToken;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link RevokedToken} entity.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    @Query("select revokedToken.tokenId from RevokedToken revokedToken where revokedToken.expiryDate > :now")
+    List<String> findAllTokenIdsByExpiryDateAfter(@Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RevokedToken revokedToken where revokedToken.expiryDate <= :now")
+    int deleteAllByExpiryDateBefore(@Param("now") Instant now);
+}
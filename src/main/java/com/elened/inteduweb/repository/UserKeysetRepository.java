@@ -0,0 +1,36 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.User;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Queries of the {@link User} entity which Spring Data cannot derive, see {@link UserKeysetRepositoryImpl}.
+ */
+public interface UserKeysetRepository {
+    /**
+     * Sort properties which may be null, such as the creation date of the users loaded by Liquibase: their
+     * {@code null} values are ordered before the others, whatever the database.
+     */
+    List<String> NULLABLE_PROPERTIES = Collections.singletonList("createdDate");
+
+    /**
+     * Get the users following a position in the given order, seeking to that position with a predicate on the sort
+     * properties instead of skipping the previous rows with an offset.
+     *
+     * @param login the login to exclude.
+     * @param sort the order of the users, whose last property must be unique.
+     * @param position the values of the sort properties of the last user already read, {@code null} for the first page.
+     * @param limit the maximum number of users to get.
+     * @return the users following the position, without their authorities.
+     */
+    List<UserSummary> findAllByLoginNotAfter(String login, Sort sort, List<Object> position, int limit);
+
+    /**
+     * Estimate the number of users from the statistics of the database, when it keeps some.
+     *
+     * @return the estimated number of users, or the exact number if the database does not provide an estimate.
+     */
+    long estimateCount();
+}
@@ -0,0 +1,137 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.User;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CompoundSelection;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Implementation of the {@link UserKeysetRepository} fragment of the {@link UserRepository}.
+ */
+public class UserKeysetRepositoryImpl implements UserKeysetRepository {
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final EntityManager entityManager;
+
+    public UserKeysetRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<UserSummary> findAllByLoginNotAfter(String login, Sort sort, List<Object> position, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> user = query.from(User.class);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.notEqual(user.get("login"), login));
+        if (position != null) {
+            predicates.add(after(cb, user, sort.toList(), position));
+        }
+        query.select(projection(cb, user)).where(predicates.toArray(new Predicate[0])).orderBy(orders(cb, user, sort));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Same projection as {@link UserRepository#USER_SUMMARY_PROJECTION}.
+     */
+    private static CompoundSelection<UserSummary> projection(CriteriaBuilder cb, Root<User> user) {
+        return cb.construct(
+            UserSummary.class,
+            user.get("id"),
+            user.get("login"),
+            user.get("firstName"),
+            user.get("lastName"),
+            user.get("email"),
+            user.get("imageUrl"),
+            user.get("activated"),
+            user.get("langKey"),
+            user.get("createdBy"),
+            user.get("createdDate"),
+            user.get("lastModifiedBy"),
+            user.get("lastModifiedDate")
+        );
+    }
+
+    /**
+     * Order by the sort properties, the nullable ones being preceded by whether they are set, as the databases do not
+     * agree on where the {@code null} values go: they come first in ascending orders, and last in descending ones.
+     */
+    private static List<Order> orders(CriteriaBuilder cb, Root<User> user, Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<?> property = user.get(order.getProperty());
+            if (NULLABLE_PROPERTIES.contains(order.getProperty())) {
+                Expression<Integer> isSet = cb.<Integer>selectCase().when(cb.isNull(property), 0).otherwise(1);
+                orders.add(order.isAscending() ? cb.asc(isSet) : cb.desc(isSet));
+            }
+            orders.add(order.isAscending() ? cb.asc(property) : cb.desc(property));
+        }
+        return orders;
+    }
+
+    /**
+     * Build {@code (p1 > v1) or (p1 = v1 and ((p2 > v2) or (p2 = v2 and ...)))}, with {@code <} for descending orders,
+     * and {@code null} values lower than the others.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate after(CriteriaBuilder cb, Root<User> user, List<Sort.Order> orders, List<Object> position) {
+        Predicate predicate = null;
+        for (int i = orders.size() - 1; i >= 0; i--) {
+            Sort.Order order = orders.get(i);
+            Path<Comparable> property = user.get(order.getProperty());
+            Comparable value = (Comparable) position.get(i);
+            Predicate beyond;
+            Predicate equal;
+            if (value == null) {
+                beyond = order.isAscending() ? cb.isNotNull(property) : cb.disjunction();
+                equal = cb.isNull(property);
+            } else {
+                beyond = order.isAscending() ? cb.greaterThan(property, value) : cb.lessThan(property, value);
+                if (!order.isAscending() && NULLABLE_PROPERTIES.contains(order.getProperty())) {
+                    beyond = cb.or(beyond, cb.isNull(property));
+                }
+                equal = cb.equal(property, value);
+            }
+            predicate = predicate == null ? beyond : cb.or(beyond, cb.and(equal, predicate));
+        }
+        return predicate;
+    }
+
+    @Override
+    public long estimateCount() {
+        Long estimate = entityManager
+            .unwrap(Session.class)
+            .doReturningWork(
+                connection -> {
+                    if (!POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName())) {
+                        return null;
+                    }
+                    try (
+                        PreparedStatement statement = connection.prepareStatement(
+                            "select reltuples::bigint from pg_class where oid = 'jhi_user'::regclass"
+                        );
+                        ResultSet resultSet = statement.executeQuery()
+                    ) {
+                        return resultSet.next() ? resultSet.getLong(1) : null;
+                    }
+                }
+            );
+        // Tables which were never analyzed have no statistics, counting them is cheap anyway
+        if (estimate != null && estimate > 0) {
+            return estimate;
+        }
+        return entityManager.createQuery("select count(u) from User u", Long.class).getSingleResult();
+    }
+}
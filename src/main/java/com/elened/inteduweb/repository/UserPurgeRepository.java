@@ -0,0 +1,22 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.User;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based deletions of the {@link User} entity, see {@link UserPurgeRepositoryImpl}.
+ */
+public interface UserPurgeRepository {
+    /**
+     * Delete users and their authorities with one statement per table, without loading them, unless they were
+     * activated in the meantime: the statements check it again, so a user activated since their id was read is kept.
+     * <p>
+     * The persistence context is flushed before and cleared after, like a {@code @Modifying} query with
+     * {@code flushAutomatically} and {@code clearAutomatically}.
+     *
+     * @param ids the IDs of the not activated users to delete.
+     * @return the IDs of the deleted users.
+     */
+    List<Long> deleteAllNotActivatedByIdInBatch(Collection<Long> ids);
+}
@@ -0,0 +1,53 @@
+package com.elened.inteduweb.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Implementation of the {@link UserPurgeRepository} fragment of the {@link UserRepository}.
+ */
+public class UserPurgeRepositoryImpl implements UserPurgeRepository {
+    private static final String USER_AUTHORITY_TABLE = "jhi_user_authority";
+
+    private final EntityManager entityManager;
+
+    public UserPurgeRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Long> deleteAllNotActivatedByIdInBatch(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        entityManager.flush();
+        entityManager
+            .createNativeQuery(
+                "delete from " +
+                USER_AUTHORITY_TABLE +
+                " where user_id in (:ids) and user_id in (select u.id from jhi_user u where u.activated = false)"
+            )
+            .setParameter("ids", ids)
+            .unwrap(NativeQuery.class)
+            // Only invalidates the cached authorities of the users, instead of the whole second-level cache
+            .addSynchronizedQuerySpace(USER_AUTHORITY_TABLE)
+            .executeUpdate();
+        int deleted = entityManager
+            .createQuery("delete from User u where u.id in :ids and u.activated = false")
+            .setParameter("ids", ids)
+            .executeUpdate();
+        List<Long> deletedIds = new ArrayList<>(ids);
+        if (deleted < ids.size()) {
+            // Users activated since their ids were read are kept
+            deletedIds.removeAll(
+                entityManager.createQuery("select u.id from User u where u.id in :ids", Long.class).setParameter("ids", ids).getResultList()
+            );
+        }
+        entityManager.clear();
+        return deletedIds;
+    }
+}
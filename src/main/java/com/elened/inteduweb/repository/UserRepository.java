@@ -2,27 +2,47 @@ package com.elened.inteduweb.repository;
 
 import com.elened.inteduweb.domain.User;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserKeysetRepository, UserPurgeRepository {
     String USERS_BY_LOGIN_CACHE = "usersByLogin";
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
 
+    /**
+     * Read the users straight into {@link UserSummary}s, without their authorities, see {@link #findAllAuthorityNamesByUserIdIn}.
+     */
+    String USER_SUMMARY_PROJECTION =
+        "select new com.elened.inteduweb.repository.UserSummary(u.id, u.login, u.firstName, u.lastName, u.email, u.imageUrl, " +
+        "u.activated, u.langKey, u.createdBy, u.createdDate, u.lastModifiedBy, u.lastModifiedDate) from User u";
+
     Optional<User> findOneByActivationKey(String activationKey);
 
-    List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
+    long countByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
+
+    @Query(
+        "select u.id from User u where u.activated = false and u.activationKey is not null and u.createdDate < ?1 and u.id > ?2 " +
+        "order by u.id"
+    )
+    List<Long> findAllIdsByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBeforeAndIdAfter(
+        Instant dateTime,
+        Long id,
+        Pageable pageable
+    );
 
     Optional<User> findOneByResetKey(String resetKey);
 
@@ -31,12 +51,52 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, sync = true)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, sync = true)
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
+    /**
+     * Same as {@link #findOneWithAuthoritiesByLogin(String)}, without the cache, to refresh its entries.
+     */
+    @Query("select u from User u left join fetch u.authorities where u.login = ?1")
+    Optional<User> findOneWithAuthoritiesByLoginUncached(String login);
+
+    /**
+     * Same as {@link #findOneWithAuthoritiesByEmailIgnoreCase(String)}, without the cache, to refresh its entries.
+     */
+    @Query("select u from User u left join fetch u.authorities where upper(u.email) = upper(?1)")
+    Optional<User> findOneWithAuthoritiesByEmailIgnoreCaseUncached(String email);
+
     Page<User> findAllByLoginNot(Pageable pageable, String login);
+
+    @Query(value = USER_SUMMARY_PROJECTION + " where u.login <> ?1", countQuery = "select count(u) from User u where u.login <> ?1")
+    Page<UserSummary> findAllSummaryByLoginNot(Pageable pageable, String login);
+
+    @Query(USER_SUMMARY_PROJECTION + " where u.login <> ?1")
+    Slice<UserSummary> findSliceSummaryByLoginNot(Pageable pageable, String login);
+
+    @Query("select u.id as userId, a.name as name from User u join u.authorities a where u.id in ?1")
+    List<UserAuthorityName> findAllAuthorityNamesByUserIdIn(Collection<Long> userIds);
+
+    long countByLoginNot(String login);
+
+    List<User> findAllByActivatedIsTrue(Pageable pageable);
+
+    @Query("select u.login from User u where u.login in ?1")
+    List<String> findAllLoginsByLoginIn(Collection<String> logins);
+
+    @Query("select lower(u.email) from User u where lower(u.email) in ?1")
+    List<String> findAllEmailsByEmailIgnoreCaseIn(Collection<String> emails);
+
+    /**
+     * Name of an authority of a user.
+     */
+    interface UserAuthorityName {
+        Long getUserId();
+
+        String getName();
+    }
 }
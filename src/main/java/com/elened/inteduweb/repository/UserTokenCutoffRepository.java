@@ -0,0 +1,19 @@
+package com.elened.inteduweb.repository;
+
+import com.elened.inteduweb.domain.UserTokenCutoff;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link UserTokenCutoff} entity.
+ */
+@Repository
+public interface UserTokenCutoffRepository extends JpaRepository<UserTokenCutoff, String> {
+    @Modifying
+    @Query("delete from UserTokenCutoff cutoff where cutoff.notBefore < :date")
+    int deleteAllByNotBeforeBefore(@Param("date") Instant date);
+}
@@ -0,0 +1,20 @@
+package com.elened.inteduweb.repository.search;
+
+import com.elened.inteduweb.domain.User;
+import java.util.Collection;
+
+/**
+ * Bulk operations on the {@link User} index, see {@link UserBulkSearchRepositoryImpl}.
+ */
+public interface UserBulkSearchRepository {
+    /**
+     * Delete users from the index with a single bulk request, instead of one request per user like
+     * {@link org.springframework.data.repository.CrudRepository#deleteAll(Iterable)}.
+     * <p>
+     * Users which are not indexed are ignored.
+     *
+     * @param ids the IDs of the users to delete.
+     * @throws org.springframework.data.elasticsearch.ElasticsearchException if some users could not be deleted.
+     */
+    void deleteAllByIdInBulk(Collection<Long> ids);
+}
@@ -0,0 +1,50 @@
+package com.elened.inteduweb.repository.search;
+
+import com.elened.inteduweb.domain.User;
+import io.searchbox.client.JestClient;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.BulkResult;
+import io.searchbox.core.Delete;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+
+/**
+ * Implementation of the {@link UserBulkSearchRepository} fragment of the {@link UserSearchRepository}.
+ */
+public class UserBulkSearchRepositoryImpl implements UserBulkSearchRepository {
+    private final JestClient jestClient;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    public UserBulkSearchRepositoryImpl(JestClient jestClient, ElasticsearchOperations elasticsearchOperations) {
+        this.jestClient = jestClient;
+        this.elasticsearchOperations = elasticsearchOperations;
+    }
+
+    @Override
+    public void deleteAllByIdInBulk(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ElasticsearchPersistentEntity<?> entity = elasticsearchOperations.getPersistentEntityFor(User.class);
+        Bulk.Builder bulk = new Bulk.Builder().defaultIndex(entity.getIndexName()).defaultType(entity.getIndexType());
+        ids.forEach(id -> bulk.addAction(new Delete.Builder(id.toString()).build()));
+        BulkResult result;
+        try {
+            result = jestClient.execute(bulk.build());
+        } catch (IOException e) {
+            throw new ElasticsearchException("Could not delete " + ids.size() + " users from the index", e);
+        }
+        // A user which is not indexed is reported with a 404 status but without an error
+        if (!result.getFailedItems().isEmpty()) {
+            throw new ElasticsearchException(
+                "Could not delete " + result.getFailedItems().size() + " users from the index: " + result.getErrorMessage(),
+                result.getFailedItems().stream().collect(Collectors.toMap(item -> item.id, item -> item.error, (a, b) -> a))
+            );
+        }
+    }
+}
@@ -6,4 +6,4 @@ import org.springframework.data.elasticsearch.repository.ElasticsearchRepository
 /**
  * Spring Data Elasticsearch repository for the User entity.
  */
-public interface UserSearchRepository extends ElasticsearchRepository<User, Long> {}
+public interface UserSearchRepository extends ElasticsearchRepository<User, Long>, UserBulkSearchRepository {}
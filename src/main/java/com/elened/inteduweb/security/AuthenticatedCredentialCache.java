@@ -0,0 +1,144 @@
+package com.elened.inteduweb.security;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived cache of successfully verified credentials, so that clients repeating the same HTTP Basic
+ * credentials do not pay for a full password hash on every request.
+ * <p>
+ * Only a keyed digest of the clear text password is kept, and an entry only matches as long as the stored
+ * password hash of the user is unchanged. Entries are also evicted explicitly when a password is changed or a
+ * user is deleted.
+ */
+@Component
+public class AuthenticatedCredentialCache {
+    static final String CACHE_METER_NAME = "security.credential.cache";
+
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
+    private final ConcurrentMap<String, CachedCredential> entries = new ConcurrentHashMap<>();
+
+    private final SecretKeySpec digestKey;
+
+    private final boolean enabled;
+
+    private final long timeToLiveInMilliseconds;
+
+    private final int maxEntries;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public AuthenticatedCredentialCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.CredentialCache properties = applicationProperties.getSecurity().getCredentialCache();
+        this.enabled = properties.isEnabled();
+        this.timeToLiveInMilliseconds = 1000L * properties.getTimeToLiveSeconds();
+        this.maxEntries = properties.getMaxEntries();
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.digestKey = new SecretKeySpec(keyBytes, DIGEST_ALGORITHM);
+        this.hits = Counter.builder(CACHE_METER_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(CACHE_METER_NAME).tag("result", "miss").register(meterRegistry);
+        Gauge.builder(CACHE_METER_NAME + ".size", entries, Map::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Check whether the given credentials were successfully verified recently.
+     *
+     * @param login the login of the user.
+     * @param rawPassword the clear text password presented by the client.
+     * @param encodedPassword the password hash currently stored for the user.
+     * @return {@code true} if the password hash does not need to be checked again.
+     */
+    public boolean matches(String login, String rawPassword, String encodedPassword) {
+        if (!enabled) {
+            return false;
+        }
+        CachedCredential cached = entries.get(login);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                if (
+                    cached.encodedPassword.equals(encodedPassword) && MessageDigest.isEqual(cached.credentialDigest, digest(login, rawPassword))
+                ) {
+                    hits.increment();
+                    return true;
+                }
+            } else {
+                entries.remove(login, cached);
+            }
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Remember credentials that have just been verified against the stored password hash.
+     *
+     * @param login the login of the user.
+     * @param rawPassword the clear text password presented by the client.
+     * @param encodedPassword the password hash currently stored for the user.
+     */
+    public void put(String login, String rawPassword, String encodedPassword) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(cached -> cached.expiresAt <= now);
+            if (entries.size() >= maxEntries && !entries.containsKey(login)) {
+                return;
+            }
+        }
+        entries.put(login, new CachedCredential(digest(login, rawPassword), encodedPassword, now + timeToLiveInMilliseconds));
+    }
+
+    public void evict(String login) {
+        if (login != null) {
+            entries.remove(login);
+        }
+    }
+
+    private byte[] digest(String login, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(login.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static final class CachedCredential {
+        private final byte[] credentialDigest;
+
+        private final String encodedPassword;
+
+        private final long expiresAt;
+
+        private CachedCredential(byte[] credentialDigest, String encodedPassword, long expiresAt) {
+            this.credentialDigest = credentialDigest;
+            this.encodedPassword = encodedPassword;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
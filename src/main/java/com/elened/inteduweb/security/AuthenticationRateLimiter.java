@@ -0,0 +1,137 @@
+package com.elened.inteduweb.security;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Rate limits the authentication and password reset requests, by remote address and by account.
+ * <p>
+ * Checks are done before any user is loaded or any password is hashed, so rejected requests cost almost nothing.
+ * <p>
+ * Behind a load balancer, the remote address is the one of the balancer: the address of the client is then read from
+ * the X-Forwarded-For header, from its last entry backwards, skipping the {@code trusted-proxies}. A client cannot
+ * spoof its address this way, as the header of a request not coming from a trusted proxy is ignored.
+ */
+@Component
+public class AuthenticationRateLimiter {
+    private static final String METER_NAME = "security.rate.limit";
+
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final Logger log = LoggerFactory.getLogger(AuthenticationRateLimiter.class);
+
+    private final boolean enabled;
+
+    private final Pattern trustedProxies;
+
+    private final TokenBucketRateLimiter addressLimiter;
+
+    private final TokenBucketRateLimiter accountLimiter;
+
+    private final Counter addressRejections;
+
+    private final Counter accountRejections;
+
+    public AuthenticationRateLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.RateLimit properties = applicationProperties.getSecurity().getRateLimit();
+        this.enabled = properties.isEnabled();
+        this.trustedProxies = StringUtils.hasText(properties.getTrustedProxies()) ? Pattern.compile(properties.getTrustedProxies()) : null;
+        this.addressLimiter =
+            new TokenBucketRateLimiter(
+                properties.getAddress().getCapacity(),
+                properties.getAddress().getRefillPerMinute(),
+                properties.getMaxKeys()
+            );
+        this.accountLimiter =
+            new TokenBucketRateLimiter(
+                properties.getAccount().getCapacity(),
+                properties.getAccount().getRefillPerMinute(),
+                properties.getMaxKeys()
+            );
+        this.addressRejections = Counter.builder(METER_NAME + ".rejected").tag("key", "address").register(meterRegistry);
+        this.accountRejections = Counter.builder(METER_NAME + ".rejected").tag("key", "account").register(meterRegistry);
+        Gauge.builder(METER_NAME + ".keys", addressLimiter, TokenBucketRateLimiter::size).tag("key", "address").register(meterRegistry);
+        Gauge.builder(METER_NAME + ".keys", accountLimiter, TokenBucketRateLimiter::size).tag("key", "account").register(meterRegistry);
+    }
+
+    /**
+     * Take a token for a request, on behalf of the given account.
+     *
+     * @param request the request, whose client address is resolved by {@link #resolveClientAddress(HttpServletRequest)}.
+     * @param account the login or email the request is about, may be {@code null}.
+     * @throws RateLimitExceededException if the address or the account has no token left.
+     */
+    public void check(HttpServletRequest request, String account) {
+        check(resolveClientAddress(request), account);
+    }
+
+    /**
+     * Take a token for a request from the given address, on behalf of the given account.
+     *
+     * @param remoteAddress the address of the client.
+     * @param account the login or email the request is about, may be {@code null}.
+     * @throws RateLimitExceededException if the address or the account has no token left.
+     */
+    public void check(String remoteAddress, String account) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = addressLimiter.tryAcquire(String.valueOf(remoteAddress));
+        if (waitNanos > 0) {
+            addressRejections.increment();
+            log.debug("Rate limit exceeded for address {}", remoteAddress);
+            throw new RateLimitExceededException(toRetryAfterSeconds(waitNanos));
+        }
+        if (account != null) {
+            waitNanos = accountLimiter.tryAcquire(account.toLowerCase(Locale.ENGLISH));
+            if (waitNanos > 0) {
+                accountRejections.increment();
+                log.debug("Rate limit exceeded for account {}", account);
+                throw new RateLimitExceededException(toRetryAfterSeconds(waitNanos));
+            }
+        }
+    }
+
+    /**
+     * Get the address of the client of a request, which is not the remote address when it is a trusted proxy.
+     *
+     * @param request the request.
+     * @return the address of the client.
+     */
+    public String resolveClientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!isTrustedProxy(address)) {
+            return address;
+        }
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (!StringUtils.hasText(forwardedFor)) {
+            return address;
+        }
+        String[] forwarded = forwardedFor.split(",");
+        for (int i = forwarded.length - 1; i >= 0; i--) {
+            address = forwarded[i].trim();
+            if (!isTrustedProxy(address)) {
+                break;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        return trustedProxies != null && address != null && trustedProxies.matcher(address).matches();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,134 @@
+package com.elened.inteduweb.security;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link PasswordEncoder} running the delegate on a dedicated, size-limited pool of threads.
+ * <p>
+ * Password hashing is expensive on purpose: this keeps a burst of logins or registrations from using every
+ * request thread, and fails fast with a {@link PasswordHashingRejectedException} when the pool and its queue are
+ * full or when a request waited too long. BCrypt does not check for interruptions though: a hash which already
+ * started when its request gave up still runs to completion on its thread, only the queued ones are skipped.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    static final String METER_PREFIX = "security.password.hashing";
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long maxWaitMillis;
+
+    private final long retryAfterSeconds;
+
+    private final Timer waitTimer;
+
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Security.PasswordHashing properties = applicationProperties.getSecurity().getPasswordHashing();
+        this.delegate = delegate;
+        this.maxWaitMillis = properties.getMaxWaitMillis();
+        this.retryAfterSeconds = properties.getRetryAfterSeconds();
+        BlockingQueue<Runnable> queue = properties.getQueueCapacity() > 0
+            ? new ArrayBlockingQueue<>(properties.getQueueCapacity())
+            : new SynchronousQueue<>();
+        this.executor =
+            new ThreadPoolExecutor(
+                properties.getConcurrency(),
+                properties.getConcurrency(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                queue,
+                new CustomizableThreadFactory("inteduweb-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+        this.waitTimer =
+            Timer
+                .builder(METER_PREFIX + ".wait")
+                .description("Time spent waiting for a password hashing thread")
+                .register(meterRegistry);
+        this.rejected =
+            Counter
+                .builder(METER_PREFIX + ".rejected")
+                .description("Password hashing requests rejected because the stage was saturated")
+                .register(meterRegistry);
+        Gauge.builder(METER_PREFIX + ".queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder(METER_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future =
+                executor.submit(
+                    () -> {
+                        waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                        return task.call();
+                    }
+                );
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Skips the task if it is still queued, a running hash is not interrupted and completes anyway
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+}
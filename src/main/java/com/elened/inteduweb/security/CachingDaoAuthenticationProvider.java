@@ -0,0 +1,29 @@
+package com.elened.inteduweb.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * {@link DaoAuthenticationProvider} which skips the password hash check for credentials found in the
+ * {@link AuthenticatedCredentialCache}.
+ */
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+    private final AuthenticatedCredentialCache credentialCache;
+
+    public CachingDaoAuthenticationProvider(AuthenticatedCredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication)
+        throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials != null && credentialCache.matches(userDetails.getUsername(), credentials.toString(), userDetails.getPassword())) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        credentialCache.put(userDetails.getUsername(), credentials.toString(), userDetails.getPassword());
+    }
+}
@@ -0,0 +1,131 @@
+package com.elened.inteduweb.security;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * {@link BCryptPasswordEncoder} whose work factor can be calibrated at startup to match a target hashing latency.
+ * <p>
+ * Hashes created with a lower work factor are reported by {@link #upgradeEncoding(String)}, so that they are
+ * re-encoded on the next successful login. Hashes with a higher one are kept: the calibration depends on the node,
+ * so two nodes disagreeing on the work factor must not re-encode the same password back and forth.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    private final double measuredLatencyMillis;
+
+    CalibratedBCryptPasswordEncoder(int strength) {
+        this(strength, Double.NaN);
+    }
+
+    private CalibratedBCryptPasswordEncoder(int strength, double measuredLatencyMillis) {
+        super(strength);
+        this.strength = strength;
+        this.measuredLatencyMillis = measuredLatencyMillis;
+    }
+
+    /**
+     * Create the encoder, calibrating its work factor if a target latency is configured: otherwise nothing is
+     * measured and the configured work factor is used as is.
+     *
+     * @param properties the password hashing properties.
+     * @return the encoder.
+     */
+    public static CalibratedBCryptPasswordEncoder create(ApplicationProperties.Security.PasswordHashing properties) {
+        if (properties.getTargetLatencyMillis() <= 0) {
+            log.info("Using a BCrypt work factor of {}", properties.getStrength());
+            return new CalibratedBCryptPasswordEncoder(properties.getStrength());
+        }
+        long minStrengthNanos = measure(properties.getMinStrength());
+        int strength = calibrate(
+            properties.getTargetLatencyMillis(),
+            minStrengthNanos,
+            properties.getMinStrength(),
+            properties.getMaxStrength()
+        );
+        double latencyMillis = TimeUnit.NANOSECONDS.toMicros(minStrengthNanos << (strength - properties.getMinStrength())) / 1000.0;
+        log.info("Using a calibrated BCrypt work factor of {} (about {} ms per hash)", strength, latencyMillis);
+        return new CalibratedBCryptPasswordEncoder(strength, latencyMillis);
+    }
+
+    /**
+     * Find the highest work factor whose hashing latency stays under the target.
+     * <p>
+     * Only the lowest work factor is measured: each additional round doubles the cost of a hash.
+     */
+    static int calibrate(long targetLatencyMillis, long minStrengthNanos, int minStrength, int maxStrength) {
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        long estimatedNanos = minStrengthNanos;
+        int strength = minStrength;
+        while (strength < maxStrength && estimatedNanos * 2 <= targetNanos) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder sampleEncoder = new BCryptPasswordEncoder(strength);
+        sampleEncoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            sampleEncoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * @return the estimated duration of a hash with the calibrated work factor, or {@code NaN} if it was not calibrated.
+     */
+    public double getMeasuredLatencyMillis() {
+        return measuredLatencyMillis;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(2)) < strength;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge
+            .builder("security.password.hashing.strength", this, CalibratedBCryptPasswordEncoder::getStrength)
+            .description("BCrypt work factor used for new password hashes")
+            .register(registry);
+        Gauge
+            .builder("security.password.hashing.calibrated.latency", this, CalibratedBCryptPasswordEncoder::getMeasuredLatencyMillis)
+            .description("Measured duration of a password hash with the chosen work factor")
+            .baseUnit("milliseconds")
+            .register(registry);
+    }
+}
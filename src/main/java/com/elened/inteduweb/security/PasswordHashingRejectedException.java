@@ -0,0 +1,24 @@
+package com.elened.inteduweb.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * This exception is thrown when the password hashing stage is saturated and cannot accept more work.
+ * <p>
+ * It is an {@link AuthenticationServiceException} so the authentication filters, e.g. of HTTP Basic, hand it to the
+ * authentication entry point, which resolves it like the controllers do into a 503 with a Retry-After header.
+ */
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("Too many concurrent password hashing requests");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,79 @@
+package com.elened.inteduweb.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket rate limiter, with one bucket per key.
+ * <p>
+ * Each bucket is a single "theoretical arrival time" updated with compare-and-set (the GCRA form of a token
+ * bucket), so a check never blocks. A bucket which has refilled completely carries no state: those are dropped
+ * first when the number of keys reaches its bound.
+ */
+public class TokenBucketRateLimiter {
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final long emissionIntervalNanos;
+
+    private final long burstNanos;
+
+    private final int maxKeys;
+
+    /**
+     * @param capacity the number of tokens of a full bucket.
+     * @param refillPerMinute the number of tokens added to a bucket every minute.
+     * @param maxKeys the maximum number of buckets to keep.
+     */
+    public TokenBucketRateLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Try to take a token from the bucket of the given key.
+     *
+     * @param key the key of the bucket.
+     * @return {@code 0} if a token was taken, or else the number of nanoseconds until a token is available.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrivalTime = bucket.get();
+            long newArrivalTime = (arrivalTime - now > 0 ? arrivalTime : now) + emissionIntervalNanos;
+            long waitNanos = newArrivalTime - now - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(arrivalTime, newArrivalTime)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evict(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        int toRemove = buckets.size() - maxKeys + Math.max(1, maxKeys / 10);
+        Iterator<Map.Entry<String, AtomicLong>> entries = buckets.entrySet().iterator();
+        while (toRemove > 0 && entries.hasNext()) {
+            entries.next();
+            entries.remove();
+            toRemove--;
+        }
+    }
+}
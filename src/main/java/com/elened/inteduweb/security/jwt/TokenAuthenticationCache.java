@@ -0,0 +1,147 @@
+package com.elened.inteduweb.security.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Bounded cache of the {@link Authentication}s built from already verified JWT tokens.
+ * <p>
+ * Entries are keyed by a SHA-256 digest of the token, so raw tokens are not kept in memory, and they expire
+ * together with the token they were built from. The "jti" and "iat" claims are kept too, so a cached token can
+ * still be checked against the {@link TokenRevocationStore}.
+ */
+class TokenAuthenticationCache {
+    static final String CACHE_METER_NAME = "jwt.authentication.cache";
+
+    private final ConcurrentMap<String, CachedAuthentication> entries = new ConcurrentHashMap<>();
+
+    private final int maxEntries;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    TokenAuthenticationCache(int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.hits =
+            Counter
+                .builder(CACHE_METER_NAME)
+                .tag("result", "hit")
+                .description("Verified JWT tokens found in the cache")
+                .register(meterRegistry);
+        this.misses =
+            Counter
+                .builder(CACHE_METER_NAME)
+                .tag("result", "miss")
+                .description("JWT tokens that had to be parsed and verified")
+                .register(meterRegistry);
+        Gauge
+            .builder(CACHE_METER_NAME + ".size", entries, Map::size)
+            .description("Number of verified JWT tokens in the cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the cached entry of an already verified token.
+     *
+     * @param token the JWT token.
+     * @return the cached entry, or {@code null} if the token is unknown or expired.
+     */
+    CachedAuthentication get(String token) {
+        String key = digest(token);
+        CachedAuthentication cached = entries.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(System.currentTimeMillis())) {
+                hits.increment();
+                return cached;
+            }
+            entries.remove(key, cached);
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(String token, Authentication authentication, String tokenId, Date issuedAt, Date expiration) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(digest(token), new CachedAuthentication(authentication, tokenId, issuedAt, expiration.getTime()));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop expired entries first, then an arbitrary tenth of the cache if that was not enough, so that the cost
+     * of a full scan is amortized over many insertions.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(cached -> cached.isExpired(now));
+        int toRemove = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (toRemove > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            toRemove--;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static final class CachedAuthentication {
+        private final Authentication authentication;
+
+        private final String tokenId;
+
+        private final Date issuedAt;
+
+        private final long expiresAt;
+
+        private CachedAuthentication(Authentication authentication, String tokenId, Date issuedAt, long expiresAt) {
+            this.authentication = authentication;
+            this.tokenId = tokenId;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        Authentication getAuthentication() {
+            return authentication;
+        }
+
+        String getTokenId() {
+            return tokenId;
+        }
+
+        Date getIssuedAt() {
+            return issuedAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.elened.inteduweb.security.jwt;
 
+import com.elened.inteduweb.config.ApplicationProperties;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
@@ -25,16 +27,39 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    /**
+     * Issue date of the token to the millisecond, the "iat" claim only having a precision of one second.
+     */
+    private static final String ISSUED_AT_MILLIS_KEY = "iat_ms";
+
     private Key key;
 
+    private JwtParser jwtParser;
+
     private long tokenValidityInMilliseconds;
 
     private long tokenValidityInMillisecondsForRememberMe;
 
     private final JHipsterProperties jHipsterProperties;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final TokenAuthenticationCache tokenCache;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        TokenRevocationStore tokenRevocationStore,
+        MeterRegistry meterRegistry
+    ) {
         this.jHipsterProperties = jHipsterProperties;
+        this.tokenRevocationStore = tokenRevocationStore;
+        ApplicationProperties.Security.TokenCache tokenCacheProperties = applicationProperties.getSecurity().getTokenCache();
+        if (tokenCacheProperties.isEnabled()) {
+            this.tokenCache = new TokenAuthenticationCache(tokenCacheProperties.getMaxEntries(), meterRegistry);
+        } else {
+            this.tokenCache = null;
+        }
     }
 
     @PostConstruct
@@ -52,6 +77,7 @@ public class TokenProvider {
             keyBytes = Decoders.BASE64.decode(jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret());
         }
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
@@ -70,7 +96,10 @@ public class TokenProvider {
 
         return Jwts
             .builder()
+            .setId(UUID.randomUUID().toString())
             .setSubject(authentication.getName())
+            .setIssuedAt(new Date(now))
+            .claim(ISSUED_AT_MILLIS_KEY, now)
             .claim(AUTHORITIES_KEY, authorities)
             .signWith(key, SignatureAlgorithm.HS512)
             .setExpiration(validity)
@@ -78,8 +107,112 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return createAuthentication(claims, token);
+    }
+
+    /**
+     * Verify the given token and build its {@link Authentication} in a single pass.
+     * <p>
+     * The result is cached until the token expires, so a token sent again is neither parsed nor verified twice.
+     * Revocation is checked on every call, cached or not.
+     *
+     * @param token the JWT token.
+     * @return the authentication, or an empty {@link Optional} if the token is not valid or was revoked.
+     */
+    public Optional<Authentication> resolveAuthentication(String token) {
+        if (tokenCache != null) {
+            TokenAuthenticationCache.CachedAuthentication cached = tokenCache.get(token);
+            if (cached != null) {
+                Authentication authentication = cached.getAuthentication();
+                if (tokenRevocationStore.isRevoked(cached.getTokenId(), authentication.getName(), cached.getIssuedAt())) {
+                    log.info("Revoked JWT token.");
+                    return Optional.empty();
+                }
+                return Optional.of(authentication);
+            }
+        }
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            return Optional.empty();
+        }
+        if (isRevoked(claims)) {
+            log.info("Revoked JWT token.");
+            return Optional.empty();
+        }
+        Authentication authentication = createAuthentication(claims, token);
+        if (tokenCache != null && claims.getExpiration() != null) {
+            tokenCache.put(token, authentication, claims.getId(), getIssuedAt(claims), claims.getExpiration());
+        }
+        return Optional.of(authentication);
+    }
+
+    /**
+     * Revoke the given token, so it is not accepted anymore even before it expires.
+     * <p>
+     * Tokens issued before token ids were introduced cannot be revoked one by one, so all the tokens of their
+     * user are revoked instead.
+     *
+     * @param token the JWT token.
+     */
+    public void revokeToken(String token) {
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Invalid JWT token.");
+            log.trace("Invalid JWT token trace.", e);
+            return;
+        }
+        if (claims.getId() != null) {
+            tokenRevocationStore.revokeToken(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant());
+        } else {
+            tokenRevocationStore.revokeAllTokens(claims.getSubject());
+        }
+    }
+
+    /**
+     * Revoke all the tokens issued to a user so far but the given one, e.g. the token of the request which changed the
+     * password of the user.
+     *
+     * @param login the login of the user.
+     * @param token the JWT token to keep accepting, {@code null} to revoke all the tokens of the user.
+     */
+    public void revokeOtherTokens(String login, String token) {
+        String tokenId = null;
+        if (token != null) {
+            try {
+                Claims claims = jwtParser.parseClaimsJws(token).getBody();
+                if (login.equals(claims.getSubject())) {
+                    tokenId = claims.getId();
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                log.trace("Invalid JWT token trace.", e);
+            }
+        }
+        tokenRevocationStore.revokeAllTokens(login, tokenId);
+    }
+
+    private boolean isRevoked(Claims claims) {
+        return tokenRevocationStore.isRevoked(claims.getId(), claims.getSubject(), getIssuedAt(claims));
+    }
+
+    /**
+     * @return the issue date of a token, to the millisecond unless it was issued before this claim was introduced.
+     */
+    private static Date getIssuedAt(Claims claims) {
+        Object issuedAtMillis = claims.get(ISSUED_AT_MILLIS_KEY);
+        if (issuedAtMillis instanceof Number) {
+            return new Date(((Number) issuedAtMillis).longValue());
+        }
+        return claims.getIssuedAt();
+    }
 
+    private Authentication createAuthentication(Claims claims, String token) {
         Collection<? extends GrantedAuthority> authorities = Arrays
             .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
             .map(SimpleGrantedAuthority::new)
@@ -92,7 +225,11 @@ public class TokenProvider {
 
     public boolean validateToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            if (isRevoked(claims)) {
+                log.info("Revoked JWT token.");
+                return false;
+            }
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.info("Invalid JWT token.");
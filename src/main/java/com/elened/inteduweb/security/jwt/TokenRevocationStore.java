@@ -0,0 +1,257 @@
+package com.elened.inteduweb.security.jwt;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.domain.RevokedToken;
+import com.elened.inteduweb.domain.UserTokenCutoff;
+import com.elened.inteduweb.repository.RevokedTokenRepository;
+import com.elened.inteduweb.repository.UserTokenCutoffRepository;
+import io.github.jhipster.config.JHipsterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Store of the revoked JWT tokens.
+ * <p>
+ * Revocations are persisted, either for a single token (by its "jti" claim) or for every token of a user issued
+ * until a "not before" date. They are mirrored in memory into a Bloom filter backed by an exact set, so checking a
+ * token which was not revoked, the common case, costs a few bit lookups.
+ * <p>
+ * The in-memory copy is only changed once the revocation is committed, so a rolled back revocation is never applied.
+ */
+@Component
+public class TokenRevocationStore {
+    private static final String METER_PREFIX = "jwt.revocation";
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final UserTokenCutoffRepository userTokenCutoffRepository;
+
+    private final ApplicationProperties.Security.TokenRevocation properties;
+
+    private final long tokenValidityInSecondsForRememberMe;
+
+    private final Counter probableHits;
+
+    private final Object lock = new Object();
+
+    private volatile Revocations revocations;
+
+    public TokenRevocationStore(
+        RevokedTokenRepository revokedTokenRepository,
+        UserTokenCutoffRepository userTokenCutoffRepository,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userTokenCutoffRepository = userTokenCutoffRepository;
+        this.properties = applicationProperties.getSecurity().getTokenRevocation();
+        this.tokenValidityInSecondsForRememberMe =
+            jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.revocations = new Revocations(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+        this.probableHits =
+            Counter
+                .builder(METER_PREFIX + ".probable.hits")
+                .description("Token checks which had to look up the exact set of revoked tokens")
+                .register(meterRegistry);
+        Gauge.builder(METER_PREFIX + ".tokens", this, store -> store.revocations.tokenIds.size()).register(meterRegistry);
+        Gauge.builder(METER_PREFIX + ".users", this, store -> store.revocations.cutoffs.size()).register(meterRegistry);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        reload(Instant.now());
+    }
+
+    /**
+     * Check whether a token was revoked.
+     *
+     * @param tokenId the "jti" claim of the token, {@code null} for tokens issued without one.
+     * @param login the subject of the token.
+     * @param issuedAt the date the token was issued, to the millisecond when the token carries it, {@code null} for
+     * tokens issued without one.
+     * @return {@code true} if the token must not be accepted anymore.
+     */
+    public boolean isRevoked(String tokenId, String login, Date issuedAt) {
+        Revocations current = this.revocations;
+        if (tokenId != null && current.filter.mightContain(tokenId)) {
+            probableHits.increment();
+            if (current.tokenIds.contains(tokenId)) {
+                return true;
+            }
+        }
+        Cutoff cutoff = current.cutoffs.get(login);
+        return (
+            cutoff != null &&
+            (tokenId == null || !tokenId.equals(cutoff.exemptTokenId)) &&
+            (issuedAt == null || issuedAt.toInstant().isBefore(cutoff.notBefore))
+        );
+    }
+
+    /**
+     * Revoke a single token, e.g. on logout.
+     *
+     * @param tokenId the "jti" claim of the token.
+     * @param login the subject of the token.
+     * @param expiryDate the expiry date of the token, after which the revocation can be forgotten.
+     */
+    @Transactional
+    public void revokeToken(String tokenId, String login, Instant expiryDate) {
+        log.debug("Revoking token {} of {}", tokenId, login);
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setLogin(login);
+        revokedToken.setExpiryDate(expiryDate);
+        revokedTokenRepository.save(revokedToken);
+        afterCommit(
+            () -> {
+                synchronized (lock) {
+                    revocations.addTokenId(tokenId);
+                }
+            }
+        );
+    }
+
+    /**
+     * Revoke every token issued to a user until now, e.g. after a password reset.
+     * <p>
+     * The tokens issued from now on, e.g. when the user logs in again with the new password, are accepted: the cutoff
+     * is compared to their issue date to the millisecond, and the tokens issued in the very millisecond of the cutoff
+     * are accepted too.
+     *
+     * @param login the login of the user.
+     */
+    @Transactional
+    public void revokeAllTokens(String login) {
+        revokeAllTokens(login, null);
+    }
+
+    /**
+     * Revoke every token issued to a user until now but one, e.g. the token the user changed their password with.
+     *
+     * @param login the login of the user.
+     * @param exemptTokenId the "jti" claim of the token to keep accepting, {@code null} to revoke all of them.
+     */
+    @Transactional
+    public void revokeAllTokens(String login, String exemptTokenId) {
+        log.debug("Revoking all tokens of {}", login);
+        Instant notBefore = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        UserTokenCutoff userTokenCutoff = new UserTokenCutoff();
+        userTokenCutoff.setLogin(login);
+        userTokenCutoff.setNotBefore(notBefore);
+        userTokenCutoff.setExemptTokenId(exemptTokenId);
+        userTokenCutoffRepository.save(userTokenCutoff);
+        Cutoff cutoff = new Cutoff(userTokenCutoff);
+        afterCommit(
+            () -> {
+                synchronized (lock) {
+                    revocations.cutoffs.put(login, cutoff);
+                }
+            }
+        );
+    }
+
+    /**
+     * Run an update of the in-memory copy once the current transaction is committed, or now without transaction.
+     * <p>
+     * A reload started before the commit holds the lock until it is done, so the update is applied to the reloaded
+     * copy: a committed revocation is never lost.
+     */
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+
+                    @Override
+                    public void afterCommit() {
+                        update.run();
+                    }
+                }
+            );
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Forget the revocations of tokens which have expired anyway, and reload the in-memory copy from the
+     * database, so that revocations made by other instances are taken into account.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @Scheduled(cron = "0 * * * * ?")
+    @Transactional
+    public void compact() {
+        Instant now = Instant.now();
+        int tokens = revokedTokenRepository.deleteAllByExpiryDateBefore(now);
+        int cutoffs = userTokenCutoffRepository.deleteAllByNotBeforeBefore(now.minusSeconds(tokenValidityInSecondsForRememberMe));
+        if (tokens > 0 || cutoffs > 0) {
+            log.debug("Removed {} expired token revocations and {} expired user cutoffs", tokens, cutoffs);
+        }
+        reload(now);
+    }
+
+    private void reload(Instant now) {
+        synchronized (lock) {
+            List<String> tokenIds = revokedTokenRepository.findAllTokenIdsByExpiryDateAfter(now);
+            List<UserTokenCutoff> cutoffs = userTokenCutoffRepository.findAll();
+            Revocations reloaded = new Revocations(
+                Math.max(properties.getExpectedInsertions(), 2 * tokenIds.size()),
+                properties.getFalsePositiveProbability()
+            );
+            tokenIds.forEach(reloaded::addTokenId);
+            cutoffs.forEach(cutoff -> reloaded.cutoffs.put(cutoff.getLogin(), new Cutoff(cutoff)));
+            this.revocations = reloaded;
+        }
+    }
+
+    private static final class Revocations {
+        private final BloomFilter filter;
+
+        private final Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+        private final Map<String, Cutoff> cutoffs = new ConcurrentHashMap<>();
+
+        private Revocations(int expectedInsertions, double falsePositiveProbability) {
+            this.filter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        }
+
+        private void addTokenId(String tokenId) {
+            tokenIds.add(tokenId);
+            filter.add(tokenId);
+        }
+    }
+
+    /**
+     * In-memory copy of a {@link UserTokenCutoff}.
+     */
+    private static final class Cutoff {
+        private final Instant notBefore;
+
+        private final String exemptTokenId;
+
+        private Cutoff(UserTokenCutoff cutoff) {
+            this.notBefore = cutoff.getNotBefore();
+            this.exemptTokenId = cutoff.getExemptTokenId();
+        }
+    }
+}
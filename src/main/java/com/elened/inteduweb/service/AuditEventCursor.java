@@ -0,0 +1,90 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a listing of audit events paginated with keyset (or "seek") pagination: the date and the ID of the
+ * event on the edge of a page, and whether the pages before or after it are wanted.
+ * <p>
+ * Audit events are always listed in the order of their date then of their ID, which matches the indexes of the table.
+ * Cursors are encoded as opaque URL-safe strings, and are only valid for the direction they were created with.
+ */
+public final class AuditEventCursor {
+    private static final String NEXT = "next";
+
+    private static final String PREVIOUS = "previous";
+
+    private final boolean backward;
+
+    private final Instant date;
+
+    private final Long id;
+
+    private AuditEventCursor(boolean backward, Instant date, Long id) {
+        this.backward = backward;
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Cursor of the events after the given one.
+     */
+    static AuditEventCursor after(PersistentAuditEvent event) {
+        return new AuditEventCursor(false, event.getAuditEventDate(), event.getId());
+    }
+
+    /**
+     * Cursor of the events before the given one.
+     */
+    static AuditEventCursor before(PersistentAuditEvent event) {
+        return new AuditEventCursor(true, event.getAuditEventDate(), event.getId());
+    }
+
+    boolean isBackward() {
+        return backward;
+    }
+
+    Instant getDate() {
+        return date;
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    /**
+     * Encode this cursor for the given direction.
+     *
+     * @param direction the direction of the listing.
+     * @return the opaque cursor.
+     */
+    String encode(Sort.Direction direction) {
+        String encoded = String.join("&", backward ? PREVIOUS : NEXT, direction.name(), date.toString(), id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor created by {@link #encode(Sort.Direction)}.
+     *
+     * @param cursor the opaque cursor.
+     * @param direction the direction of the listing, which must be the one the cursor was created with.
+     * @return the decoded cursor.
+     * @throws InvalidCursorException if the cursor is malformed or was created for another direction.
+     */
+    static AuditEventCursor decode(String cursor, Sort.Direction direction) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("&", -1);
+            if (parts.length != 4 || !(NEXT.equals(parts[0]) || PREVIOUS.equals(parts[0])) || !direction.name().equals(parts[1])) {
+                throw new InvalidCursorException();
+            }
+            return new AuditEventCursor(PREVIOUS.equals(parts[0]), Instant.parse(parts[2]), Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.elened.inteduweb.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting the audit events, whatever their number, in constant memory.
+ * <p>
+ * The events matching the filters are read by a single statement in the order of their date, so the export is a
+ * consistent snapshot even while events are written. Its rows are scrolled forward-only, a fetch size at a time, and
+ * are never attached to the persistence context: each event is written out, with its data, as soon as it is read.
+ */
+@Service
+public class AuditEventExportService {
+    /**
+     * Number of rows fetched from the database at once.
+     */
+    static final int FETCH_SIZE = 1000;
+
+    private static final String EXPORT_QUERY =
+        "select e.id, e.auditEventDate, e.principal, e.auditEventType, e.data from PersistentAuditEvent e";
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventExportService.class);
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public AuditEventExportService(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write the audit events matching the filters as NDJSON, one JSON event per line, in the order of their date.
+     *
+     * @param outputStream the stream to write to, which is flushed but not closed.
+     * @param principal the principal of the events, or {@code null} for all principals.
+     * @param type the type of the events, or {@code null} for all types.
+     * @param fromDate the date the events happened at or after, or {@code null}.
+     * @param toDate the date the events happened before, or {@code null}.
+     * @return the number of exported events.
+     * @throws IOException if the events could not be written.
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public long exportNdjson(OutputStream outputStream, String principal, String type, Instant fromDate, Instant toDate)
+        throws IOException {
+        long start = System.currentTimeMillis();
+        long exported = 0;
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (principal != null) {
+            conditions.add("e.principal = :principal");
+            parameters.put("principal", principal);
+        }
+        if (type != null) {
+            conditions.add("e.auditEventType = :type");
+            parameters.put("type", type);
+        }
+        if (fromDate != null) {
+            conditions.add("e.auditEventDate >= :fromDate");
+            parameters.put("fromDate", fromDate);
+        }
+        if (toDate != null) {
+            conditions.add("e.auditEventDate < :toDate");
+            parameters.put("toDate", toDate);
+        }
+        StringBuilder hql = new StringBuilder(EXPORT_QUERY);
+        if (!conditions.isEmpty()) {
+            hql.append(" where ").append(String.join(" and ", conditions));
+        }
+        hql.append(" order by e.auditEventDate, e.id");
+        Query<Object[]> query = entityManager.unwrap(Session.class).createQuery(hql.toString());
+        parameters.forEach(query::setParameter);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // The events are separated by new lines rather than by the default space
+        generator.setRootValueSeparator(null);
+        try (
+            ScrollableResults rows = query
+                .setFetchSize(FETCH_SIZE)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)
+        ) {
+            while (rows.next()) {
+                writeEvent(generator, rows.get());
+                exported++;
+            }
+        } finally {
+            generator.close();
+        }
+        outputStream.flush();
+        log.debug("Exported {} audit events in {} ms", exported, System.currentTimeMillis() - start);
+        return exported;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeEvent(JsonGenerator generator, Object[] row) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", (Long) row[0]);
+        generator.writeStringField("timestamp", row[1] != null ? row[1].toString() : null);
+        generator.writeStringField("principal", (String) row[2]);
+        generator.writeStringField("type", (String) row[3]);
+        generator.writeObjectFieldStart("data");
+        if (row[4] != null) {
+            for (Map.Entry<String, String> entry : ((Map<String, String>) row[4]).entrySet()) {
+                generator.writeStringField(entry.getKey(), entry.getValue());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
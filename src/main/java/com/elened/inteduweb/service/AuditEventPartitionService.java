@@ -0,0 +1,74 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.repository.PersistenceAuditEventRepository;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import javax.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for creating the monthly partitions of the audit events ahead of time, when the audit events were
+ * partitioned by the optional "audit-partitioning" Liquibase context on PostgreSQL.
+ * <p>
+ * Events whose month has no partition go to the default partition, which can't hold rows of a partition created
+ * later: the months are therefore created {@code application.audit-retention.partitions-ahead} months in advance.
+ * The expired months are dropped by {@link AuditEventRetentionService}.
+ */
+@Service
+public class AuditEventPartitionService {
+    private final Logger log = LoggerFactory.getLogger(AuditEventPartitionService.class);
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.AuditRetention properties;
+
+    public AuditEventPartitionService(
+        PersistenceAuditEventRepository persistenceAuditEventRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getAuditRetention();
+    }
+
+    /**
+     * Create the partitions of the current month and of the next ones, at startup then every day at 00:30 (am).
+     *
+     * @return the number of created partitions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 0 * * ?")
+    public int createUpcomingPartitions() {
+        Boolean partitioned = transactionTemplate.execute(status -> persistenceAuditEventRepository.isPartitionedByMonth());
+        if (!Boolean.TRUE.equals(partitioned)) {
+            return 0;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        int created = 0;
+        for (int i = 0; i <= properties.getPartitionsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> persistenceAuditEventRepository.createPartition(month)))) {
+                    log.info("Created the partition of the audit events of {}", month);
+                    created++;
+                }
+            } catch (DataAccessException | PersistenceException e) {
+                // E.g. the default partition already holds events of that month, which must be moved by hand
+                log.error("Could not create the partition of the audit events of {}: {}", month, e.getMessage());
+            }
+        }
+        return created;
+    }
+}
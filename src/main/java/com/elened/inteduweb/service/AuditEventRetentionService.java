@@ -0,0 +1,224 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.repository.PersistenceAuditEventRepository;
+import io.github.jhipster.config.JHipsterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for deleting the audit events older than the retention period.
+ * <p>
+ * The events are never loaded: the last expired event is found with the index on the event date, then the events
+ * up to it are deleted by ranges of IDs, each range in its own transaction with a single statement, their data being
+ * in the same row. The job pauses between two ranges so it does not hog the database.
+ * <p>
+ * When the audit events are partitioned by month, see {@link AuditEventPartitionService}, the expired months are
+ * dropped as a whole instead.
+ */
+@Service
+public class AuditEventRetentionService {
+    private static final String ROWS_METER_NAME = "audit.retention.rows";
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventRetentionService.class);
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties.AuditRetention properties;
+
+    private final Timer duration;
+
+    private final Counter deletedEvents;
+
+    private final Counter droppedPartitions;
+
+    private volatile double rowsPerSecond;
+
+    public AuditEventRetentionService(
+        PersistenceAuditEventRepository persistenceAuditEventRepository,
+        PlatformTransactionManager transactionManager,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jHipsterProperties = jHipsterProperties;
+        this.properties = applicationProperties.getAuditRetention();
+        this.duration =
+            Timer
+                .builder("audit.retention.duration")
+                .description("Duration of the deletions of the expired audit events")
+                .register(meterRegistry);
+        this.deletedEvents =
+            Counter.builder(ROWS_METER_NAME).tag("table", "event").description("Expired audit rows deleted").register(meterRegistry);
+        this.droppedPartitions =
+            Counter
+                .builder("audit.retention.partitions.dropped")
+                .description("Monthly partitions of the audit events dropped")
+                .register(meterRegistry);
+        Gauge
+            .builder("audit.retention.rows.per.second", this, AuditEventRetentionService::getRowsPerSecond)
+            .description("Audit rows deleted per second by the last deletion of the expired audit events")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Delete the audit events older than {@code jhipster.audit-events.retention-period} days.
+     * <p>
+     * When the audit events are partitioned by month, the expired months are dropped first, and only the events of
+     * the month the retention period ends in are deleted by ranges.
+     * <p>
+     * Called in a transaction, e.g. by a test, the ranges join it instead of being committed one by one.
+     *
+     * @return the number of deleted events.
+     */
+    public long removeOldAuditEvents() {
+        long start = System.nanoTime();
+        Instant before = Instant.now().minus(jHipsterProperties.getAuditEvents().getRetentionPeriod(), ChronoUnit.DAYS);
+        Deleted deleted = new Deleted();
+        try {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> persistenceAuditEventRepository.isPartitionedByMonth()))) {
+                dropExpiredPartitions(before);
+            }
+            Long maxId = persistenceAuditEventRepository.findMaxIdByAuditEventDateBefore(before);
+            long afterId = Long.MIN_VALUE;
+            while (maxId != null && afterId < maxId) {
+                if (deleted.ranges > 0 && !pause()) {
+                    break;
+                }
+                Range range = deleteRange(afterId, maxId, before);
+                if (range == null) {
+                    break;
+                }
+                deleted.add(range);
+                afterId = range.lastId;
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            duration.record(elapsed, TimeUnit.NANOSECONDS);
+            rowsPerSecond = deleted.events * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsed);
+        }
+        log.info(
+            "Deleted {} audit events in {} ms, {} rows/s",
+            deleted.events,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            Math.round(rowsPerSecond)
+        );
+        return deleted.events;
+    }
+
+    /**
+     * Delete the next chunk of expired events, from the first one after {@code afterId}.
+     *
+     * @return the deleted range, or {@code null} if there is no expired event left.
+     */
+    private Range deleteRange(long afterId, long maxId, Instant before) {
+        return transactionTemplate.execute(
+            status -> {
+                List<Long> ids = persistenceAuditEventRepository.findAllIdsByIdBetweenAndAuditEventDateBefore(
+                    afterId,
+                    maxId,
+                    before,
+                    PageRequest.of(0, properties.getChunkSize())
+                );
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                long lastId = ids.get(ids.size() - 1);
+                int events = persistenceAuditEventRepository.deleteAllByIdBetweenAndAuditEventDateBefore(afterId, lastId, before);
+                log.debug("Deleted {} audit events up to {}", events, lastId);
+                return new Range(lastId, events);
+            }
+        );
+    }
+
+    /**
+     * Drop the partitions of the months which ended before a date: the data being in the event rows, this only
+     * touches the catalog.
+     */
+    private void dropExpiredPartitions(Instant before) {
+        List<YearMonth> months = transactionTemplate.execute(status -> persistenceAuditEventRepository.findAllPartitionMonths());
+        for (YearMonth month : months) {
+            if (month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant().isAfter(before)) {
+                continue;
+            }
+            transactionTemplate.execute(
+                status -> {
+                    persistenceAuditEventRepository.dropPartition(month);
+                    return null;
+                }
+            );
+            droppedPartitions.increment();
+            log.info("Dropped the partition of the audit events of {}", month);
+        }
+    }
+
+    private boolean pause() {
+        if (properties.getPauseMillis() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(properties.getPauseMillis());
+            return true;
+        } catch (InterruptedException e) {
+            // The application is shutting down, the next run will go on
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return the audit events deleted per second by the last run.
+     */
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    /**
+     * Events deleted by a run.
+     */
+    private final class Deleted {
+        private long ranges;
+
+        private long events;
+
+        private void add(Range range) {
+            ranges++;
+            events += range.events;
+            deletedEvents.increment(range.events);
+        }
+    }
+
+    /**
+     * Range of IDs deleted in a single transaction.
+     */
+    private static final class Range {
+        private final long lastId;
+
+        private final int events;
+
+        private Range(long lastId, int events) {
+            this.lastId = lastId;
+            this.events = events;
+        }
+    }
+}
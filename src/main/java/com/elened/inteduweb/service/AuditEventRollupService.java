@@ -0,0 +1,85 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.audit.AuditEventRollups;
+import com.elened.inteduweb.repository.AuditEventPolicy;
+import com.elened.inteduweb.repository.PersistenceAuditEventRepository;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import javax.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for the counts of the audit events kept in memory by {@link AuditEventRollups}.
+ */
+@Service
+public class AuditEventRollupService {
+    private final Logger log = LoggerFactory.getLogger(AuditEventRollupService.class);
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private final AuditEventRollups auditEventRollups;
+
+    public AuditEventRollupService(PersistenceAuditEventRepository persistenceAuditEventRepository, AuditEventRollups auditEventRollups) {
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.auditEventRollups = auditEventRollups;
+    }
+
+    /**
+     * Count the events added before the application started which still fall in a bucket, reading them once, at
+     * startup, with the index on the event date. A sampled or collapsed event counts for the events it stands for.
+     *
+     * @return the number of counted events.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public long seed() {
+        long start = System.currentTimeMillis();
+        Instant fromDate = Arrays
+            .stream(AuditEventRollups.Granularity.values())
+            .map(auditEventRollups::getWindowStart)
+            .min(Instant::compareTo)
+            .orElseGet(auditEventRollups::getStartedAt);
+        long seeded = 0;
+        try (
+            Stream<Object[]> rows = persistenceAuditEventRepository.streamAllTypesAndPrincipalsByAuditEventDateBetween(
+                fromDate,
+                auditEventRollups.getStartedAt()
+            )
+        ) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                @SuppressWarnings("unchecked")
+                Map<String, String> data = (Map<String, String>) row[3];
+                auditEventRollups.seed((String) row[0], (String) row[1], (Instant) row[2], AuditEventPolicy.weightOf(data));
+                seeded++;
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            // The counts only miss the older events, the application can start anyway
+            log.warn("Could not count the audit events since {}: {}", fromDate, e.getMessage());
+        }
+        log.info("Counted {} audit events since {} in {} ms", seeded, fromDate, System.currentTimeMillis() - start);
+        return seeded;
+    }
+
+    /**
+     * Get the counts of the audit events by bucket, from the oldest to the current one.
+     *
+     * @param granularity the granularity of the buckets.
+     * @param top the maximum number of principals of each bucket to get, the busiest first.
+     * @return the counts by bucket.
+     */
+    public List<AuditEventRollups.Rollup> getRollups(AuditEventRollups.Granularity granularity, int top) {
+        return auditEventRollups.getRollups(granularity, top);
+    }
+}
@@ -1,18 +1,24 @@
 package com.elened.inteduweb.service;
 
 import com.elened.inteduweb.config.audit.AuditEventConverter;
+import com.elened.inteduweb.domain.PersistentAuditEvent;
 import com.elened.inteduweb.repository.PersistenceAuditEventRepository;
-import io.github.jhipster.config.JHipsterProperties;
+import com.elened.inteduweb.service.dto.KeysetPage;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -25,37 +31,32 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuditEventService {
     private final Logger log = LoggerFactory.getLogger(AuditEventService.class);
 
-    private final JHipsterProperties jHipsterProperties;
-
     private final PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private final AuditEventConverter auditEventConverter;
 
+    private final AuditEventRetentionService auditEventRetentionService;
+
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
         AuditEventConverter auditEventConverter,
-        JHipsterProperties jhipsterProperties
+        AuditEventRetentionService auditEventRetentionService
     ) {
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
-        this.jHipsterProperties = jhipsterProperties;
+        this.auditEventRetentionService = auditEventRetentionService;
     }
 
     /**
      * Old audit events should be automatically deleted after 30 days.
      *
-     * This is scheduled to get fired at 12:00 (am).
+     * This is scheduled to get fired at 12:00 (am). The events are deleted by ranges, each in its own transaction, see
+     * {@link AuditEventRetentionService}.
      */
     @Scheduled(cron = "0 0 12 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeOldAuditEvents() {
-        persistenceAuditEventRepository
-            .findByAuditEventDateBefore(Instant.now().minus(jHipsterProperties.getAuditEvents().getRetentionPeriod(), ChronoUnit.DAYS))
-            .forEach(
-                auditEvent -> {
-                    log.debug("Deleting audit data {}", auditEvent);
-                    persistenceAuditEventRepository.delete(auditEvent);
-                }
-            );
+        auditEventRetentionService.removeOldAuditEvents();
     }
 
     @Transactional(readOnly = true)
@@ -70,6 +71,65 @@ public class AuditEventService {
             .map(auditEventConverter::convertToAuditEvent);
     }
 
+    /**
+     * Get a page of audit events with keyset pagination, in the order of their date: the page is found by seeking to
+     * the position of its cursor, so deep pages cost the same as the first one.
+     *
+     * @param type the type of the events, or {@code null} for all types.
+     * @param fromDate the date the events happened at or after, or {@code null}.
+     * @param toDate the date the events happened before, or {@code null}.
+     * @param direction the direction of the order by date.
+     * @param cursor the cursor of the page, empty for the first page.
+     * @param size the size of the page.
+     * @return the page of events.
+     * @throws InvalidCursorException if the cursor was not created for the same direction.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<AuditEvent> findPage(
+        String type,
+        Instant fromDate,
+        Instant toDate,
+        Sort.Direction direction,
+        String cursor,
+        int size
+    ) {
+        AuditEventCursor from = cursor.isEmpty() ? null : AuditEventCursor.decode(cursor, direction);
+        boolean backward = from != null && from.isBackward();
+        List<PersistentAuditEvent> events = new ArrayList<>(
+            persistenceAuditEventRepository.findAllByAuditEventTypeAndAuditEventDateBetweenAfter(
+                type,
+                fromDate,
+                toDate,
+                backward ? direction.reverse() : direction,
+                from != null ? from.getDate() : null,
+                from != null ? from.getId() : null,
+                size + 1
+            )
+        );
+        boolean hasMore = events.size() > size;
+        if (hasMore) {
+            events.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(events);
+        }
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!events.isEmpty()) {
+            if (backward || hasMore) {
+                nextCursor = AuditEventCursor.after(events.get(events.size() - 1)).encode(direction);
+            }
+            if (backward ? hasMore : from != null) {
+                previousCursor = AuditEventCursor.before(events.get(0)).encode(direction);
+            }
+        }
+        return new KeysetPage<>(
+            events.stream().map(auditEventConverter::convertToAuditEvent).collect(Collectors.toList()),
+            nextCursor,
+            previousCursor
+        );
+    }
+
     @Transactional(readOnly = true)
     public Optional<AuditEvent> find(Long id) {
         return persistenceAuditEventRepository.findById(id).map(auditEventConverter::convertToAuditEvent);
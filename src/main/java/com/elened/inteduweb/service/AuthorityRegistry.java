@@ -0,0 +1,91 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.domain.Authority;
+import com.elened.inteduweb.repository.AuthorityRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Copy-on-write registry of the {@link Authority} entities.
+ * <p>
+ * Authorities almost never change, so they are loaded once into an immutable snapshot, which {@link #refresh()}
+ * replaces as a whole. The returned entities are shared between all callers and must not be modified.
+ */
+@Service
+public class AuthorityRegistry {
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private volatile Snapshot snapshot;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    /**
+     * Get an authority by its name.
+     *
+     * @param name the name of the authority.
+     * @return the authority, or an empty {@link Optional} if it does not exist.
+     */
+    public Optional<Authority> findByName(String name) {
+        return Optional.ofNullable(getSnapshot().authorities.get(name));
+    }
+
+    /**
+     * @return the names of all the authorities, sorted.
+     */
+    public List<String> getNames() {
+        return getSnapshot().names;
+    }
+
+    /**
+     * Reload the authorities from the database.
+     * <p>
+     * This is scheduled to get fired every 10 minutes, so that authorities added to the database directly are
+     * eventually seen by every instance.
+     */
+    @Scheduled(cron = "0 */10 * * * ?")
+    public synchronized void refresh() {
+        Snapshot refreshed = new Snapshot(authorityRepository.findAll());
+        if (snapshot == null || !snapshot.names.equals(refreshed.names)) {
+            log.debug("Loaded authorities {}", refreshed.names);
+        }
+        snapshot = refreshed;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Authority> authorities;
+
+        private final List<String> names;
+
+        private Snapshot(List<Authority> loaded) {
+            Map<String, Authority> byName = new TreeMap<>();
+            loaded.forEach(authority -> byName.put(authority.getName(), authority));
+            this.authorities = Collections.unmodifiableMap(byName);
+            this.names = Collections.unmodifiableList(new ArrayList<>(byName.keySet()));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service preloading the caches after startup, so that the first requests after a deployment do not all hit the
+ * database.
+ * <p>
+ * The {@link AuthorityRegistry} is loaded, and the most recently modified active users are loaded through the cached
+ * repository methods, which fills the {@link UserRepository#USERS_BY_LOGIN_CACHE} and {@link UserRepository#USERS_BY_EMAIL_CACHE} caches
+ * as well as the entity caches. Users are loaded in parallel on the async executor, until the time budget runs out.
+ */
+@Service
+public class CacheWarmUpService {
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final ApplicationProperties.Cache.WarmUp properties;
+
+    private final Executor executor;
+
+    private final AtomicInteger loaded = new AtomicInteger();
+
+    private volatile int total;
+
+    private volatile boolean finished;
+
+    public CacheWarmUpService(
+        UserRepository userRepository,
+        AuthorityRegistry authorityRegistry,
+        ApplicationProperties applicationProperties,
+        @Qualifier("taskExecutor") Executor executor,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.properties = applicationProperties.getCache().getWarmUp();
+        this.executor = executor;
+        Gauge
+            .builder("cache.warmup.progress", this, CacheWarmUpService::getProgress)
+            .description("Share of the cache warm-up done, from 0 to 1")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            finished = true;
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(properties.getTimeBudgetSeconds());
+        List<User> users = properties.getUsers() > 0
+            ? userRepository.findAllByActivatedIsTrue(
+                PageRequest.of(0, properties.getUsers(), Sort.by(Sort.Direction.DESC, "lastModifiedDate"))
+            )
+            : Collections.emptyList();
+        total = users.size() + 1;
+        log.debug("Warming up the caches with {} users", users.size());
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        tasks.add(
+            CompletableFuture.runAsync(
+                () -> {
+                    authorityRegistry.refresh();
+                    loaded.incrementAndGet();
+                },
+                executor
+            )
+        );
+        int parallelism = Math.max(1, Math.min(properties.getParallelism(), users.size()));
+        for (int i = 0; i < parallelism; i++) {
+            List<User> slice = new ArrayList<>();
+            for (int j = i; j < users.size(); j += parallelism) {
+                slice.add(users.get(j));
+            }
+            tasks.add(CompletableFuture.runAsync(() -> warmUpUsers(slice, deadline), executor));
+        }
+        CompletableFuture
+            .allOf(tasks.toArray(new CompletableFuture[0]))
+            .whenComplete(
+                (result, error) -> {
+                    finished = true;
+                    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (error != null) {
+                        log.warn("Cache warm-up failed after {} ms: {}", elapsed, error.getMessage());
+                    } else {
+                        log.info("Cache warm-up loaded {} of {} entries in {} ms", loaded.get(), total, elapsed);
+                    }
+                }
+            );
+    }
+
+    private void warmUpUsers(List<User> users, long deadline) {
+        for (User user : users) {
+            if (System.nanoTime() - deadline > 0) {
+                log.debug("Cache warm-up time budget exceeded");
+                return;
+            }
+            userRepository.findOneWithAuthoritiesByLogin(user.getLogin());
+            if (user.getEmail() != null) {
+                userRepository.findOneWithAuthoritiesByEmailIgnoreCase(user.getEmail());
+            }
+            loaded.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return {@code true} once the warm-up is over, whether it completed, failed or ran out of time.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public double getProgress() {
+        if (finished) {
+            return 1;
+        }
+        int currentTotal = total;
+        return currentTotal == 0 ? 0 : (double) loaded.get() / currentTotal;
+    }
+}
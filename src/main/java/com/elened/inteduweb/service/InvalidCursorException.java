@@ -0,0 +1,9 @@
+package com.elened.inteduweb.service;
+
+public class InvalidCursorException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidCursorException() {
+        super("Invalid cursor, it does not come from a listing with the same order");
+    }
+}
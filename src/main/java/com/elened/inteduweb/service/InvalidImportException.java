@@ -0,0 +1,9 @@
+package com.elened.inteduweb.service;
+
+public class InvalidImportException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,189 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.repository.UserKeysetRepository;
+import com.elened.inteduweb.service.dto.UserDTO;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Position in a listing of users paginated with keyset (or "seek") pagination: the values of the sort properties of
+ * the user on the edge of a page, and whether the pages before or after it are wanted.
+ * <p>
+ * Cursors are encoded as opaque URL-safe strings, and are only valid for the order they were created with. A
+ * {@code null} value is encoded as a property without value.
+ */
+public final class UserCursor {
+    /**
+     * Properties a keyset listing can be ordered by: they are comparable, and the nullable ones are ordered with their
+     * {@code null} values before the others, see {@link UserKeysetRepository#NULLABLE_PROPERTIES}.
+     */
+    public static final List<String> KEYSET_ORDERED_PROPERTIES = Collections.unmodifiableList(
+        Arrays.asList("id", "login", "activated", "createdDate")
+    );
+
+    private static final String ID = "id";
+
+    private static final String NEXT = "next";
+
+    private static final String PREVIOUS = "previous";
+
+    private static final Map<String, Function<UserDTO, Object>> GETTERS = new HashMap<>();
+
+    private static final Map<String, Function<String, Object>> PARSERS = new HashMap<>();
+
+    static {
+        GETTERS.put(ID, UserDTO::getId);
+        GETTERS.put("login", UserDTO::getLogin);
+        GETTERS.put("activated", UserDTO::isActivated);
+        GETTERS.put("createdDate", UserDTO::getCreatedDate);
+        PARSERS.put(ID, Long::valueOf);
+        PARSERS.put("login", Function.identity());
+        PARSERS.put("activated", Boolean::valueOf);
+        PARSERS.put("createdDate", Instant::parse);
+    }
+
+    private final boolean backward;
+
+    private final List<Object> position;
+
+    private UserCursor(boolean backward, List<Object> position) {
+        this.backward = backward;
+        this.position = position;
+    }
+
+    /**
+     * Cursor of the users after the given one.
+     */
+    static UserCursor after(UserDTO user, Sort sort) {
+        return new UserCursor(false, positionOf(user, sort));
+    }
+
+    /**
+     * Cursor of the users before the given one.
+     */
+    static UserCursor before(UserDTO user, Sort sort) {
+        return new UserCursor(true, positionOf(user, sort));
+    }
+
+    /**
+     * Make an order usable by a keyset listing, by ending it with the unique id.
+     *
+     * @param sort the requested order, only made of {@link #KEYSET_ORDERED_PROPERTIES}.
+     * @return the same order, followed by the id if it was not part of it.
+     */
+    static Sort withUniqueOrder(Sort sort) {
+        if (sort.getOrderFor(ID) != null) {
+            return sort;
+        }
+        return sort.and(Sort.by(ID));
+    }
+
+    /**
+     * Reverse every order of a sort, to read the users before a position.
+     */
+    static Sort reverse(Sort sort) {
+        return Sort.by(
+            sort
+                .stream()
+                .map(order -> order.with(order.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC))
+                .collect(Collectors.toList())
+        );
+    }
+
+    boolean isBackward() {
+        return backward;
+    }
+
+    List<Object> getPosition() {
+        return position;
+    }
+
+    private static List<Object> positionOf(UserDTO user, Sort sort) {
+        return sort.stream().map(order -> GETTERS.get(order.getProperty()).apply(user)).collect(Collectors.toList());
+    }
+
+    /**
+     * Encode this cursor for the given order.
+     *
+     * @param sort the order of the listing.
+     * @return the opaque cursor.
+     */
+    String encode(Sort sort) {
+        StringBuilder encoded = new StringBuilder(backward ? PREVIOUS : NEXT);
+        List<Sort.Order> orders = sort.toList();
+        for (int i = 0; i < orders.size(); i++) {
+            Object value = position.get(i);
+            encoded.append('&').append(urlEncode(orders.get(i).getProperty()));
+            if (value != null) {
+                encoded.append('=').append(urlEncode(value.toString()));
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(encoded.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor created by {@link #encode(Sort)}.
+     *
+     * @param cursor the opaque cursor.
+     * @param sort the order of the listing, which must be the one the cursor was created with.
+     * @return the decoded cursor.
+     * @throws InvalidCursorException if the cursor is malformed or was created for another order.
+     */
+    static UserCursor decode(String cursor, Sort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("&", -1);
+            List<Sort.Order> orders = sort.toList();
+            if (parts.length != orders.size() + 1 || !(NEXT.equals(parts[0]) || PREVIOUS.equals(parts[0]))) {
+                throw new InvalidCursorException();
+            }
+            List<Object> position = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                String property = orders.get(i).getProperty();
+                String[] pair = parts[i + 1].split("=", 2);
+                if (!property.equals(urlDecode(pair[0])) || !PARSERS.containsKey(property)) {
+                    throw new InvalidCursorException();
+                }
+                if (pair.length == 2) {
+                    position.add(PARSERS.get(property).apply(urlDecode(pair[1])));
+                } else if (UserKeysetRepository.NULLABLE_PROPERTIES.contains(property)) {
+                    position.add(null);
+                } else {
+                    throw new InvalidCursorException();
+                }
+            }
+            return new UserCursor(PREVIOUS.equals(parts[0]), position);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    private static String urlEncode(String value) {
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String urlDecode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
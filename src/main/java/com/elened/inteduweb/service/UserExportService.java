@@ -0,0 +1,231 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.Constants;
+import com.elened.inteduweb.service.dto.UserDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for exporting all the users, whatever their number, in constant memory.
+ * <p>
+ * The users and their authorities are read by a single statement, so the export is a consistent snapshot even while
+ * users are modified. Its rows are scrolled forward-only, a fetch size at a time, and are never attached to the
+ * persistence context: each user is written out as soon as its last authority has been read.
+ */
+@Service
+public class UserExportService {
+    /**
+     * Number of rows fetched from the database at once.
+     */
+    static final int FETCH_SIZE = 1000;
+
+    private static final String EXPORT_QUERY =
+        "select u.id, u.login, u.firstName, u.lastName, u.email, u.imageUrl, u.activated, u.langKey, u.createdBy, u.createdDate, " +
+        "u.lastModifiedBy, u.lastModifiedDate, a.name from User u left join u.authorities a where u.login <> :login order by u.id";
+
+    private static final String[] CSV_COLUMNS = {
+        "id",
+        "login",
+        "firstName",
+        "lastName",
+        "email",
+        "imageUrl",
+        "activated",
+        "langKey",
+        "createdBy",
+        "createdDate",
+        "lastModifiedBy",
+        "lastModifiedDate",
+        "authorities",
+    };
+
+    private final Logger log = LoggerFactory.getLogger(UserExportService.class);
+
+    private final EntityManager entityManager;
+
+    private final ObjectWriter userWriter;
+
+    public UserExportService(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.userWriter =
+            objectMapper
+                .writerFor(UserDTO.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Write all the users as NDJSON, one JSON user per line.
+     *
+     * @param outputStream the stream to write to, which is flushed but not closed.
+     * @return the number of exported users.
+     * @throws IOException if the users could not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream outputStream) throws IOException {
+        try (SequenceWriter sequenceWriter = userWriter.writeValues(outputStream)) {
+            long exported = forEachUser(
+                user -> {
+                    try {
+                        sequenceWriter.write(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            );
+            if (exported > 0) {
+                sequenceWriter.flush();
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+            return exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Write all the users as CSV, with a header line, and the authorities separated by semicolons like in the files of
+     * {@link UserImportService#importCsv}.
+     *
+     * @param outputStream the stream to write to, which is flushed but not closed.
+     * @return the number of exported users.
+     * @throws IOException if the users could not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\r\n");
+        try {
+            long exported = forEachUser(
+                user -> {
+                    try {
+                        writeCsvRow(writer, user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            );
+            writer.flush();
+            return exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long forEachUser(Consumer<UserDTO> consumer) {
+        long start = System.currentTimeMillis();
+        long exported = 0;
+        Session session = entityManager.unwrap(Session.class);
+        try (
+            ScrollableResults rows = session
+                .createQuery(EXPORT_QUERY)
+                .setParameter("login", Constants.ANONYMOUS_USER)
+                .setFetchSize(FETCH_SIZE)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)
+        ) {
+            UserDTO user = null;
+            while (rows.next()) {
+                Object[] row = rows.get();
+                if (user == null || !user.getId().equals(row[0])) {
+                    if (user != null) {
+                        consumer.accept(user);
+                        exported++;
+                    }
+                    user = toUser(row);
+                }
+                if (row[12] != null) {
+                    user.getAuthorities().add((String) row[12]);
+                }
+            }
+            if (user != null) {
+                consumer.accept(user);
+                exported++;
+            }
+        }
+        log.debug("Exported {} users in {} ms", exported, System.currentTimeMillis() - start);
+        return exported;
+    }
+
+    private static UserDTO toUser(Object[] row) {
+        return new UserDTO(
+            (Long) row[0],
+            (String) row[1],
+            (String) row[2],
+            (String) row[3],
+            (String) row[4],
+            (String) row[5],
+            (Boolean) row[6],
+            (String) row[7],
+            (String) row[8],
+            (Instant) row[9],
+            (String) row[10],
+            (Instant) row[11]
+        );
+    }
+
+    private static void writeCsvRow(Writer writer, UserDTO user) throws IOException {
+        Object[] values = {
+            user.getId(),
+            user.getLogin(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getEmail(),
+            user.getImageUrl(),
+            user.isActivated(),
+            user.getLangKey(),
+            user.getCreatedBy(),
+            user.getCreatedDate(),
+            user.getLastModifiedBy(),
+            user.getLastModifiedDate(),
+            String.join(UserImportRows.AUTHORITY_SEPARATOR, user.getAuthorities()),
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(Objects.toString(values[i], "")));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quote a CSV field if needed, and escape the values a spreadsheet would evaluate as a formula, as the login, name
+     * and email of the users are chosen by the users themselves.
+     */
+    static String csvField(String value) {
+        if (!value.isEmpty() && UserImportRows.FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = UserImportRows.FORMULA_ESCAPE + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,283 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.service.dto.UserDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming readers of the rows of a bulk import of users, so an upload is never held in memory as a whole.
+ */
+final class UserImportRows {
+    /**
+     * Separator of the authorities in the "authorities" column of a CSV file.
+     */
+    static final String AUTHORITY_SEPARATOR = ";";
+
+    /**
+     * First characters of the CSV fields which spreadsheets evaluate as formulas: such fields are exported prefixed
+     * with a quote, which is removed again on import.
+     */
+    static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    static final char FORMULA_ESCAPE = '\'';
+
+    private static final Map<String, BiConsumer<UserDTO, String>> CSV_COLUMNS = new HashMap<>();
+
+    static {
+        CSV_COLUMNS.put("login", UserDTO::setLogin);
+        CSV_COLUMNS.put("email", UserDTO::setEmail);
+        CSV_COLUMNS.put("firstName", UserDTO::setFirstName);
+        CSV_COLUMNS.put("lastName", UserDTO::setLastName);
+        CSV_COLUMNS.put("imageUrl", UserDTO::setImageUrl);
+        CSV_COLUMNS.put("langKey", UserDTO::setLangKey);
+        CSV_COLUMNS.put(
+            "authorities",
+            (user, authorities) ->
+                user.setAuthorities(
+                    Arrays
+                        .stream(authorities.split(AUTHORITY_SEPARATOR))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .collect(Collectors.toSet())
+                )
+        );
+    }
+
+    private UserImportRows() {}
+
+    /**
+     * A row of the import: either a user, or the reason why the row could not be read.
+     */
+    static final class Row {
+        private final long line;
+
+        private final UserDTO user;
+
+        private final String error;
+
+        private Row(long line, UserDTO user, String error) {
+            this.line = line;
+            this.user = user;
+            this.error = error;
+        }
+
+        long getLine() {
+            return line;
+        }
+
+        UserDTO getUser() {
+            return user;
+        }
+
+        String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Read a CSV file whose first line names the columns, among login, email, firstName, lastName, imageUrl, langKey
+     * and authorities, the latter separated by {@value #AUTHORITY_SEPARATOR}.
+     *
+     * @param reader the CSV file.
+     * @return the rows of the file.
+     * @throws InvalidImportException if the header is missing or names an unknown column.
+     */
+    static Iterator<Row> csv(BufferedReader reader) {
+        CsvIterator iterator = new CsvIterator(reader);
+        List<String> header = iterator.readRecord();
+        if (header != null && !header.isEmpty()) {
+            // Spreadsheets often start their CSV exports with a byte order mark
+            header.set(0, header.get(0).replace("\uFEFF", ""));
+            header.replaceAll(String::trim);
+        }
+        if (header == null || !header.contains("login")) {
+            throw new InvalidImportException("The first line must name the columns, including login");
+        }
+        List<BiConsumer<UserDTO, String>> columns = new ArrayList<>(header.size());
+        for (String name : header) {
+            BiConsumer<UserDTO, String> column = CSV_COLUMNS.get(name);
+            if (column == null) {
+                throw new InvalidImportException("Unknown column: " + name);
+            }
+            columns.add(column);
+        }
+        iterator.columns = columns;
+        return iterator;
+    }
+
+    /**
+     * Read a file with one JSON user per line.
+     *
+     * @param reader the NDJSON file.
+     * @param userReader the reader of a {@link UserDTO}.
+     * @return the rows of the file.
+     */
+    static Iterator<Row> ndjson(BufferedReader reader, ObjectReader userReader) {
+        return new LineIterator<Row>() {
+            private long line;
+
+            @Override
+            Row read() throws IOException {
+                String json;
+                do {
+                    json = reader.readLine();
+                    line++;
+                } while (json != null && json.trim().isEmpty());
+                if (json == null) {
+                    return null;
+                }
+                try {
+                    return new Row(line, userReader.readValue(json), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * Iterator reading its next element ahead.
+     */
+    private abstract static class LineIterator<T> implements Iterator<T> {
+        private T next;
+
+        private boolean done;
+
+        /**
+         * @return the next element, or {@code null} at the end of the file.
+         */
+        abstract T read() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T current = next;
+            next = null;
+            return current;
+        }
+    }
+
+    /**
+     * RFC 4180 reader: fields may be quoted, with doubled quotes inside, and quoted fields may span several lines.
+     */
+    private static final class CsvIterator extends LineIterator<Row> {
+        private final BufferedReader reader;
+
+        private List<BiConsumer<UserDTO, String>> columns;
+
+        private long line = 1;
+
+        private long recordLine;
+
+        private boolean malformed;
+
+        private CsvIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Row read() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+            } while (record != null && record.size() == 1 && record.get(0).isEmpty());
+            if (record == null) {
+                return null;
+            }
+            if (malformed) {
+                return new Row(recordLine, null, "Unterminated quoted field");
+            }
+            if (record.size() != columns.size()) {
+                return new Row(recordLine, null, "Expected " + columns.size() + " fields but found " + record.size());
+            }
+            UserDTO user = new UserDTO();
+            for (int i = 0; i < record.size(); i++) {
+                String value = record.get(i).trim();
+                if (value.length() > 1 && value.charAt(0) == FORMULA_ESCAPE && FORMULA_PREFIXES.indexOf(value.charAt(1)) >= 0) {
+                    value = value.substring(1);
+                }
+                if (!value.isEmpty()) {
+                    columns.get(i).accept(user, value);
+                }
+            }
+            return new Row(recordLine, user, null);
+        }
+
+        /**
+         * @return the fields of the next record, or {@code null} at the end of the file.
+         */
+        private List<String> readRecord() {
+            try {
+                int c = reader.read();
+                if (c == -1) {
+                    return null;
+                }
+                recordLine = line;
+                List<String> fields = new ArrayList<>();
+                StringBuilder field = new StringBuilder();
+                boolean quoted = false;
+                while (true) {
+                    if (quoted) {
+                        if (c == -1) {
+                            // Nothing can be read after an unterminated quote
+                            malformed = true;
+                            fields.add(field.toString());
+                            return fields;
+                        }
+                        if (c == '"') {
+                            c = reader.read();
+                            if (c != '"') {
+                                quoted = false;
+                                continue;
+                            }
+                        } else if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    } else if (c == '"' && field.length() == 0) {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else if (c == '\n' || c == -1) {
+                        line++;
+                        fields.add(field.toString());
+                        return fields;
+                    } else if (c != '\r') {
+                        field.append((char) c);
+                    }
+                    c = reader.read();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.config.Constants;
+import com.elened.inteduweb.domain.Authority;
+import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.UserRepository;
+import com.elened.inteduweb.repository.search.UserSearchRepository;
+import com.elened.inteduweb.service.dto.UserDTO;
+import com.elened.inteduweb.service.dto.UserImportReportDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.jhipster.security.RandomUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for importing users in bulk, e.g. all the accounts of a new school.
+ * <p>
+ * Rows are streamed from the upload and handled by chunks, each chunk in its own transaction: it is validated with
+ * one uniqueness query per column, inserted with JDBC batching, then indexed into Elasticsearch with a single bulk
+ * request, and the creation emails are queued on the async executor. Rows which can't be imported are reported
+ * with their line, and don't prevent the other rows from being imported.
+ */
+@Service
+public class UserImportService {
+    private static final String METER_NAME = "users.import.rows";
+
+    private final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserRepository userRepository;
+
+    private final UserSearchRepository userSearchRepository;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final MailService mailService;
+
+    private final CacheManager cacheManager;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectReader userReader;
+
+    private final ApplicationProperties.UserImport properties;
+
+    private final Counter importedRows;
+
+    private final Counter failedRows;
+
+    public UserImportService(
+        UserRepository userRepository,
+        UserSearchRepository userSearchRepository,
+        AuthorityRegistry authorityRegistry,
+        PasswordEncoder passwordEncoder,
+        MailService mailService,
+        CacheManager cacheManager,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        Validator validator,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.userSearchRepository = userSearchRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.mailService = mailService;
+        this.cacheManager = cacheManager;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.userReader = objectMapper.readerFor(UserDTO.class);
+        this.properties = applicationProperties.getUserImport();
+        this.importedRows =
+            Counter.builder(METER_NAME).tag("result", "imported").description("Rows of bulk imports of users").register(meterRegistry);
+        this.failedRows =
+            Counter.builder(METER_NAME).tag("result", "failed").description("Rows of bulk imports of users").register(meterRegistry);
+    }
+
+    /**
+     * Import users from a CSV file, see {@link UserImportRows#csv(BufferedReader)} for its columns.
+     *
+     * @param csv the UTF-8 CSV file.
+     * @param sendEmails whether the creation email is sent to the imported users.
+     * @return the report of the import.
+     * @throws InvalidImportException if the header of the file is invalid.
+     */
+    public UserImportReportDTO importCsv(InputStream csv, boolean sendEmails) {
+        return importRows(UserImportRows.csv(utf8(csv)), sendEmails);
+    }
+
+    /**
+     * Import users from a file with one JSON user per line.
+     *
+     * @param ndjson the UTF-8 NDJSON file.
+     * @param sendEmails whether the creation email is sent to the imported users.
+     * @return the report of the import.
+     */
+    public UserImportReportDTO importNdjson(InputStream ndjson, boolean sendEmails) {
+        return importRows(UserImportRows.ndjson(utf8(ndjson), userReader), sendEmails);
+    }
+
+    private static BufferedReader utf8(InputStream inputStream) {
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private UserImportReportDTO importRows(Iterator<UserImportRows.Row> rows, boolean sendEmails) {
+        long start = System.currentTimeMillis();
+        Import current = new Import(sendEmails);
+        List<UserImportRows.Row> chunk = new ArrayList<>(properties.getChunkSize());
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == properties.getChunkSize()) {
+                importChunk(chunk, current);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, current);
+        }
+        UserImportReportDTO report = current.report;
+        report.getErrors().sort(Comparator.comparingLong(UserImportReportDTO.RowError::getLine));
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        long throughput = report.getImported() * 1000 / elapsed;
+        log.info("Imported {} users in {} ms, {} users/s: {}", report.getImported(), elapsed, throughput, report);
+        return report;
+    }
+
+    private void importChunk(List<UserImportRows.Row> rows, Import current) {
+        List<Candidate> candidates = new ArrayList<>(rows.size());
+        for (UserImportRows.Row row : rows) {
+            String error = row.getError() != null ? row.getError() : validate(row.getUser(), current);
+            if (error != null) {
+                current.fail(row, error);
+            } else {
+                candidates.add(new Candidate(row));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<User> created = new ArrayList<>(candidates.size());
+        List<Candidate> rejected = new ArrayList<>();
+        try {
+            transactionTemplate.execute(status -> insert(candidates, current, created, rejected));
+        } catch (DataAccessException | PersistenceException e) {
+            // E.g. a user registered concurrently with the same login: the whole chunk was rolled back
+            log.warn("Could not import a chunk of {} users: {}", candidates.size(), e.getMessage());
+            created.clear();
+            rejected.clear();
+            candidates.forEach(candidate -> current.fail(candidate.row, "Could not be saved, please retry"));
+            return;
+        }
+        rejected.forEach(candidate -> current.fail(candidate.row, candidate.error));
+        current.report.setImported(current.report.getImported() + created.size());
+        importedRows.increment(created.size());
+        index(created, current);
+        if (current.sendEmails) {
+            sendCreationEmails(created, current);
+        }
+    }
+
+    private String validate(UserDTO user, Import current) {
+        if (user.getId() != null) {
+            return "A new user cannot already have an ID";
+        }
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            return violations
+                .stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        }
+        if (user.getAuthorities() != null) {
+            for (String authority : user.getAuthorities()) {
+                if (!authorityRegistry.findByName(authority).isPresent()) {
+                    return "Unknown authority: " + authority;
+                }
+            }
+        }
+        if (!current.logins.add(user.getLogin().toLowerCase())) {
+            return "Login already in the import";
+        }
+        if (user.getEmail() != null && !current.emails.add(user.getEmail().toLowerCase())) {
+            return "Email already in the import";
+        }
+        return null;
+    }
+
+    private List<User> insert(List<Candidate> candidates, Import current, List<User> created, List<Candidate> rejected) {
+        Set<String> existingLogins = new HashSet<>(
+            userRepository.findAllLoginsByLoginIn(candidates.stream().map(Candidate::getLogin).collect(Collectors.toSet()))
+        );
+        Set<String> emails = candidates.stream().map(Candidate::getEmail).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> existingEmails = emails.isEmpty()
+            ? Collections.emptySet()
+            : new HashSet<>(userRepository.findAllEmailsByEmailIgnoreCaseIn(emails));
+
+        Session session = entityManager.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(properties.getJdbcBatchSize());
+        try {
+            Cache usersByLogin = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE));
+            Cache usersByEmail = Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE));
+            for (Candidate candidate : candidates) {
+                if (existingLogins.contains(candidate.getLogin())) {
+                    rejected.add(candidate.reject("Login already used"));
+                } else if (candidate.getEmail() != null && existingEmails.contains(candidate.getEmail())) {
+                    rejected.add(candidate.reject("Email already used"));
+                } else {
+                    User user = newUser(candidate.row.getUser(), current.encryptedPassword);
+                    entityManager.persist(user);
+                    created.add(user);
+                    // A lookup made before the import may have cached the absence of the user
+                    usersByLogin.evict(user.getLogin());
+                    if (user.getEmail() != null) {
+                        usersByEmail.evict(user.getEmail());
+                    }
+                }
+            }
+            entityManager.flush();
+            // The users are only needed as detached copies from now on
+            entityManager.clear();
+            return created;
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+    }
+
+    private User newUser(UserDTO userDTO, String encryptedPassword) {
+        User user = new User();
+        user.setLogin(userDTO.getLogin().toLowerCase());
+        user.setFirstName(userDTO.getFirstName());
+        user.setLastName(userDTO.getLastName());
+        if (userDTO.getEmail() != null) {
+            user.setEmail(userDTO.getEmail().toLowerCase());
+        }
+        user.setImageUrl(userDTO.getImageUrl());
+        user.setLangKey(userDTO.getLangKey() != null ? userDTO.getLangKey() : Constants.DEFAULT_LANGUAGE);
+        user.setPassword(encryptedPassword);
+        user.setResetKey(RandomUtil.generateResetKey());
+        user.setResetDate(Instant.now());
+        user.setActivated(true);
+        if (userDTO.getAuthorities() != null) {
+            Set<Authority> authorities = userDTO
+                .getAuthorities()
+                .stream()
+                .map(authorityRegistry::findByName)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toSet());
+            user.setAuthorities(authorities);
+        }
+        return user;
+    }
+
+    private void index(List<User> created, Import current) {
+        if (created.isEmpty()) {
+            return;
+        }
+        try {
+            userSearchRepository.saveAll(created);
+        } catch (RuntimeException e) {
+            // The users are committed, the index can be rebuilt later
+            log.warn("Could not index {} imported users: {}", created.size(), e.getMessage());
+            current.report.setNotIndexed(current.report.getNotIndexed() + created.size());
+        }
+    }
+
+    private void sendCreationEmails(List<User> created, Import current) {
+        for (User user : created) {
+            if (user.getEmail() == null) {
+                continue;
+            }
+            try {
+                mailService.sendCreationEmail(user);
+            } catch (TaskRejectedException e) {
+                current.report.setEmailsNotQueued(current.report.getEmailsNotQueued() + 1);
+            }
+        }
+        if (current.report.getEmailsNotQueued() > 0) {
+            log.warn("The async executor is full, {} creation emails were not queued", current.report.getEmailsNotQueued());
+        }
+    }
+
+    /**
+     * State of a running import.
+     */
+    private final class Import {
+        private final boolean sendEmails;
+
+        /**
+         * Imported users only get a random password they never learn, and set their own with the reset key of the
+         * creation email, so a single hash is shared by the whole import instead of running BCrypt once per user.
+         */
+        private final String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
+
+        private final Set<String> logins = new HashSet<>();
+
+        private final Set<String> emails = new HashSet<>();
+
+        private final UserImportReportDTO report = new UserImportReportDTO();
+
+        private Import(boolean sendEmails) {
+            this.sendEmails = sendEmails;
+        }
+
+        private void fail(UserImportRows.Row row, String error) {
+            report.setFailed(report.getFailed() + 1);
+            failedRows.increment();
+            if (report.getErrors().size() < properties.getMaxReportedErrors()) {
+                String login = row.getUser() != null ? row.getUser().getLogin() : null;
+                report.getErrors().add(new UserImportReportDTO.RowError(row.getLine(), login, error));
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    /**
+     * Valid row, which still has to be checked against the existing users.
+     */
+    private static final class Candidate {
+        private final UserImportRows.Row row;
+
+        private String error;
+
+        private Candidate(UserImportRows.Row row) {
+            this.row = row;
+        }
+
+        private Candidate reject(String error) {
+            this.error = error;
+            return this;
+        }
+
+        private String getLogin() {
+            return row.getUser().getLogin().toLowerCase();
+        }
+
+        private String getEmail() {
+            return row.getUser().getEmail() != null ? row.getUser().getEmail().toLowerCase() : null;
+        }
+    }
+}
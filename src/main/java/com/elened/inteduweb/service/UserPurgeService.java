@@ -0,0 +1,159 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.repository.UserRepository;
+import com.elened.inteduweb.repository.search.UserSearchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for deleting the users who never activated their account.
+ * <p>
+ * The users are deleted by chunks of IDs, each chunk in its own transaction: the IDs are selected from the last one of
+ * the previous chunk, then the authorities and the users are deleted with one statement each, and the users are
+ * removed from the index with a single bulk request. The user caches are cleared once at the end.
+ */
+@Service
+public class UserPurgeService {
+    private final Logger log = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private final UserRepository userRepository;
+
+    private final UserSearchRepository userSearchRepository;
+
+    private final CacheManager cacheManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.UserPurge properties;
+
+    private final Timer duration;
+
+    private final Counter deletedUsers;
+
+    private volatile long total;
+
+    private volatile long deleted;
+
+    public UserPurgeService(
+        UserRepository userRepository,
+        UserSearchRepository userSearchRepository,
+        CacheManager cacheManager,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.userSearchRepository = userSearchRepository;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getUserPurge();
+        this.duration =
+            Timer.builder("users.purge.duration").description("Duration of the purges of the not activated users").register(meterRegistry);
+        this.deletedUsers = Counter.builder("users.purge.deleted").description("Not activated users deleted").register(meterRegistry);
+        Gauge
+            .builder("users.purge.progress", this, UserPurgeService::getProgress)
+            .description("Share of the running purge of the not activated users done, from 0 to 1")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Delete the users not activated since {@code application.user-purge.not-activated-days}.
+     * <p>
+     * Called in a transaction, e.g. by a test, the chunks join it instead of being committed one by one.
+     *
+     * @return the number of deleted users.
+     */
+    public long removeNotActivatedUsers() {
+        long start = System.nanoTime();
+        Instant createdBefore = Instant.now().minus(properties.getNotActivatedDays(), ChronoUnit.DAYS);
+        total = userRepository.countByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(createdBefore);
+        deleted = 0;
+        Long lastId = Long.MIN_VALUE;
+        try {
+            while (deleted < total) {
+                Chunk chunk = deleteChunk(createdBefore, lastId);
+                if (chunk.ids.isEmpty()) {
+                    break;
+                }
+                if (!chunk.deletedIds.isEmpty()) {
+                    deleteFromIndex(chunk.deletedIds);
+                }
+                deleted += chunk.deletedIds.size();
+                deletedUsers.increment(chunk.deletedIds.size());
+                lastId = chunk.ids.get(chunk.ids.size() - 1);
+                log.debug("Deleted {} of {} not activated users", deleted, total);
+            }
+        } finally {
+            if (deleted > 0) {
+                // Users who never logged in are hardly cached, one clear is cheaper than broadcasting every eviction
+                Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).clear();
+                Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).clear();
+            }
+            total = deleted;
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        log.info("Deleted {} not activated users in {} ms", deleted, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return deleted;
+    }
+
+    private Chunk deleteChunk(Instant createdBefore, Long lastId) {
+        Chunk chunk = transactionTemplate.execute(
+            status -> {
+                List<Long> ids = userRepository.findAllIdsByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBeforeAndIdAfter(
+                    createdBefore,
+                    lastId,
+                    PageRequest.of(0, properties.getChunkSize())
+                );
+                return new Chunk(ids, userRepository.deleteAllNotActivatedByIdInBatch(ids));
+            }
+        );
+        return chunk != null ? chunk : new Chunk(Collections.emptyList(), Collections.emptyList());
+    }
+
+    private void deleteFromIndex(List<Long> ids) {
+        try {
+            userSearchRepository.deleteAllByIdInBulk(ids);
+        } catch (RuntimeException e) {
+            // The users are deleted from the database, the index can be rebuilt later
+            log.warn("Could not delete {} not activated users from the index: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return the share of the running purge done, from 0 to 1, or 1 when no purge is running.
+     */
+    public double getProgress() {
+        long currentTotal = total;
+        return currentTotal == 0 ? 1 : Math.min(1, (double) deleted / currentTotal);
+    }
+
+    /**
+     * IDs of a chunk of not activated users, and the ones actually deleted, without the users activated meanwhile.
+     */
+    private static final class Chunk {
+        private final List<Long> ids;
+
+        private final List<Long> deletedIds;
+
+        private Chunk(List<Long> ids, List<Long> deletedIds) {
+            this.ids = ids;
+            this.deletedIds = deletedIds;
+        }
+    }
+}
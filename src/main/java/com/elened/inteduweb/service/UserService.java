@@ -3,15 +3,17 @@ package com.elened.inteduweb.service;
 import com.elened.inteduweb.config.Constants;
 import com.elened.inteduweb.domain.Authority;
 import com.elened.inteduweb.domain.User;
-import com.elened.inteduweb.repository.AuthorityRepository;
 import com.elened.inteduweb.repository.UserRepository;
 import com.elened.inteduweb.repository.search.UserSearchRepository;
+import com.elened.inteduweb.security.AuthenticatedCredentialCache;
 import com.elened.inteduweb.security.AuthoritiesConstants;
 import com.elened.inteduweb.security.SecurityUtils;
+import com.elened.inteduweb.security.jwt.TokenProvider;
+import com.elened.inteduweb.service.dto.KeysetPage;
 import com.elened.inteduweb.service.dto.UserDTO;
+import com.elened.inteduweb.service.mapper.UserMapper;
 import io.github.jhipster.security.RandomUtil;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -19,9 +21,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -38,22 +43,38 @@ public class UserService {
 
     private final UserSearchRepository userSearchRepository;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
 
     private final CacheManager cacheManager;
 
+    private final AuthenticatedCredentialCache authenticatedCredentialCache;
+
+    private final TokenProvider tokenProvider;
+
+    private final UserPurgeService userPurgeService;
+
+    private final UserMapper userMapper;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         UserSearchRepository userSearchRepository,
-        AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        AuthorityRegistry authorityRegistry,
+        CacheManager cacheManager,
+        AuthenticatedCredentialCache authenticatedCredentialCache,
+        TokenProvider tokenProvider,
+        UserPurgeService userPurgeService,
+        UserMapper userMapper
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.userSearchRepository = userSearchRepository;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
         this.cacheManager = cacheManager;
+        this.authenticatedCredentialCache = authenticatedCredentialCache;
+        this.tokenProvider = tokenProvider;
+        this.userPurgeService = userPurgeService;
+        this.userMapper = userMapper;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -84,6 +105,8 @@ public class UserService {
                     user.setResetKey(null);
                     user.setResetDate(null);
                     this.clearUserCaches(user);
+                    authenticatedCredentialCache.evict(user.getLogin());
+                    tokenProvider.revokeOtherTokens(user.getLogin(), null);
                     return user;
                 }
             );
@@ -141,7 +164,7 @@ public class UserService {
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
         Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
+        authorityRegistry.findByName(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
         userSearchRepository.save(newUser);
@@ -183,7 +206,7 @@ public class UserService {
             Set<Authority> authorities = userDTO
                 .getAuthorities()
                 .stream()
-                .map(authorityRepository::findById)
+                .map(authorityRegistry::findByName)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .collect(Collectors.toSet());
@@ -224,7 +247,7 @@ public class UserService {
                     userDTO
                         .getAuthorities()
                         .stream()
-                        .map(authorityRepository::findById)
+                        .map(authorityRegistry::findByName)
                         .filter(Optional::isPresent)
                         .map(Optional::get)
                         .forEach(managedAuthorities::add);
@@ -245,6 +268,7 @@ public class UserService {
                     userRepository.delete(user);
                     userSearchRepository.delete(user);
                     this.clearUserCaches(user);
+                    authenticatedCredentialCache.evict(user.getLogin());
                     log.debug("Deleted User: {}", user);
                 }
             );
@@ -293,14 +317,114 @@ public class UserService {
                     String encryptedPassword = passwordEncoder.encode(newPassword);
                     user.setPassword(encryptedPassword);
                     this.clearUserCaches(user);
+                    authenticatedCredentialCache.evict(user.getLogin());
+                    // The user stays logged in with the token of this request, the other sessions are logged out
+                    tokenProvider.revokeOtherTokens(user.getLogin(), SecurityUtils.getCurrentUserJWT().orElse(null));
                     log.debug("Changed password for User: {}", user);
                 }
             );
     }
 
+    /**
+     * Get a page of managed users.
+     * <p>
+     * The users are read straight into summaries mapped to DTOs, and their authorities with a second query, so that a
+     * page costs the same two queries (plus the count) whatever its size, and no entity is loaded into the persistence
+     * context.
+     *
+     * @param pageable the pagination information.
+     * @return the page of users.
+     */
     @Transactional(readOnly = true)
     public Page<UserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAllByLoginNot(pageable, Constants.ANONYMOUS_USER).map(UserDTO::new);
+        return withAuthorities(
+            userRepository.findAllSummaryByLoginNot(pageable, Constants.ANONYMOUS_USER).map(userMapper::userSummaryToUserDTO)
+        );
+    }
+
+    /**
+     * Get a page of managed users without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the page of users, which only knows whether there is a next page.
+     */
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> getManagedUsersSlice(Pageable pageable) {
+        return withAuthorities(
+            userRepository.findSliceSummaryByLoginNot(pageable, Constants.ANONYMOUS_USER).map(userMapper::userSummaryToUserDTO)
+        );
+    }
+
+    /**
+     * Get a page of managed users with keyset pagination: the page is found by seeking to the position of its cursor
+     * in the given order, so deep pages cost the same as the first one.
+     *
+     * @param sort the order of the users, only made of {@link UserCursor#KEYSET_ORDERED_PROPERTIES}.
+     * @param cursor the cursor of the page, empty for the first page.
+     * @param size the size of the page.
+     * @return the page of users.
+     * @throws InvalidCursorException if the cursor was not created for the same order.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<UserDTO> getManagedUsersPage(Sort sort, String cursor, int size) {
+        Sort keysetSort = UserCursor.withUniqueOrder(sort);
+        UserCursor from = cursor.isEmpty() ? null : UserCursor.decode(cursor, keysetSort);
+        boolean backward = from != null && from.isBackward();
+        List<UserDTO> users = userRepository
+            .findAllByLoginNotAfter(
+                Constants.ANONYMOUS_USER,
+                backward ? UserCursor.reverse(keysetSort) : keysetSort,
+                from != null ? from.getPosition() : null,
+                size + 1
+            )
+            .stream()
+            .map(userMapper::userSummaryToUserDTO)
+            .collect(Collectors.toCollection(ArrayList::new));
+        boolean hasMore = users.size() > size;
+        if (hasMore) {
+            users.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(users);
+        }
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!users.isEmpty()) {
+            if (backward || hasMore) {
+                nextCursor = UserCursor.after(users.get(users.size() - 1), keysetSort).encode(keysetSort);
+            }
+            if (backward ? hasMore : from != null) {
+                previousCursor = UserCursor.before(users.get(0), keysetSort).encode(keysetSort);
+            }
+        }
+        return new KeysetPage<>(withAuthorities(users), nextCursor, previousCursor);
+    }
+
+    private <S extends Iterable<UserDTO>> S withAuthorities(S users) {
+        Map<Long, UserDTO> usersById = new HashMap<>();
+        users.forEach(user -> usersById.put(user.getId(), user));
+        if (!usersById.isEmpty()) {
+            userRepository
+                .findAllAuthorityNamesByUserIdIn(usersById.keySet())
+                .forEach(authority -> usersById.get(authority.getUserId()).getAuthorities().add(authority.getName()));
+        }
+        return users;
+    }
+
+    @Transactional(readOnly = true)
+    public long countManagedUsers() {
+        return userRepository.countByLoginNot(Constants.ANONYMOUS_USER);
+    }
+
+    /**
+     * Estimate the number of managed users from the database statistics, which is much cheaper than counting them
+     * on large tables.
+     *
+     * @return the estimated number of users.
+     */
+    @Transactional(readOnly = true)
+    public long estimateManagedUsers() {
+        return userRepository.estimateCount();
     }
 
     @Transactional(readOnly = true)
@@ -316,20 +440,13 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am). The users are deleted by chunks, each in its own
+     * transaction, see {@link UserPurgeService}.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(
-                user -> {
-                    log.debug("Deleting not activated user {}", user.getLogin());
-                    userRepository.delete(user);
-                    userSearchRepository.delete(user);
-                    this.clearUserCaches(user);
-                }
-            );
+        userPurgeService.removeNotActivatedUsers();
     }
 
     /**
@@ -338,7 +455,7 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+        return authorityRegistry.getNames();
     }
 
     private void clearUserCaches(User user) {
@@ -0,0 +1,29 @@
+package com.elened.inteduweb.service;
+
+import com.elened.inteduweb.config.cache.RefreshAheadLoader;
+import com.elened.inteduweb.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Refreshes the entries of the {@link UserRepository#USERS_BY_LOGIN_CACHE} cache ahead of their expiry.
+ */
+@Component
+public class UsersByLoginLoader implements RefreshAheadLoader {
+    private final UserRepository userRepository;
+
+    public UsersByLoginLoader(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public String getCacheName() {
+        return UserRepository.USERS_BY_LOGIN_CACHE;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Object load(Object key) {
+        return userRepository.findOneWithAuthoritiesByLoginUncached((String) key).orElse(null);
+    }
+}
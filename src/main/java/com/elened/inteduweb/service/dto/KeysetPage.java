@@ -0,0 +1,40 @@
+package com.elened.inteduweb.service.dto;
+
+import java.util.List;
+
+/**
+ * A page of a listing paginated by position rather than by offset, with the cursors of the pages around it.
+ *
+ * @param <T> the type of the page content.
+ */
+public class KeysetPage<T> {
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    private final String previousCursor;
+
+    public KeysetPage(List<T> content, String nextCursor, String previousCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the cursor of the next page, or {@code null} if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * @return the cursor of the previous page, or {@code null} if this is the first page.
+     */
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+}
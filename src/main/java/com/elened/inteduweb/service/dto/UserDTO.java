@@ -4,6 +4,7 @@ import com.elened.inteduweb.config.Constants;
 import com.elened.inteduweb.domain.Authority;
 import com.elened.inteduweb.domain.User;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.validation.constraints.*;
@@ -51,6 +52,38 @@ public class UserDTO {
         // Empty constructor needed for Jackson.
     }
 
+    /**
+     * Constructor of the user listing projection, the authorities are added afterwards.
+     */
+    public UserDTO(
+        Long id,
+        String login,
+        String firstName,
+        String lastName,
+        String email,
+        String imageUrl,
+        boolean activated,
+        String langKey,
+        String createdBy,
+        Instant createdDate,
+        String lastModifiedBy,
+        Instant lastModifiedDate
+    ) {
+        this.id = id;
+        this.login = login;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.imageUrl = imageUrl;
+        this.activated = activated;
+        this.langKey = langKey;
+        this.createdBy = createdBy;
+        this.createdDate = createdDate;
+        this.lastModifiedBy = lastModifiedBy;
+        this.lastModifiedDate = lastModifiedDate;
+        this.authorities = new HashSet<>();
+    }
+
     public UserDTO(User user) {
         this.id = user.getId();
         this.login = user.getLogin();
@@ -0,0 +1,108 @@
+package com.elened.inteduweb.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO reporting the outcome of a bulk import of users.
+ */
+public class UserImportReportDTO {
+    private long imported;
+
+    private long failed;
+
+    private long notIndexed;
+
+    private long emailsNotQueued;
+
+    private boolean errorsTruncated;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getNotIndexed() {
+        return notIndexed;
+    }
+
+    public void setNotIndexed(long notIndexed) {
+        this.notIndexed = notIndexed;
+    }
+
+    public long getEmailsNotQueued() {
+        return emailsNotQueued;
+    }
+
+    public void setEmailsNotQueued(long emailsNotQueued) {
+        this.emailsNotQueued = emailsNotQueued;
+    }
+
+    /**
+     * @return {@code true} if more rows failed than the reported {@link #getErrors() errors}.
+     */
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * A row which could not be imported.
+     */
+    public static class RowError {
+        private final long line;
+
+        private final String login;
+
+        private final String message;
+
+        public RowError(long line, String login, String message) {
+            this.line = line;
+            this.login = login;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserImportReportDTO{" +
+            "imported=" + imported +
+            ", failed=" + failed +
+            ", notIndexed=" + notIndexed +
+            ", emailsNotQueued=" + emailsNotQueued +
+            "}";
+    }
+}
@@ -2,6 +2,8 @@ package com.elened.inteduweb.service.mapper;
 
 import com.elened.inteduweb.domain.Authority;
 import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.UserSummary;
+import com.elened.inteduweb.service.AuthorityRegistry;
 import com.elened.inteduweb.service.dto.UserDTO;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -15,6 +17,11 @@ import org.springframework.stereotype.Service;
  */
 @Service
 public class UserMapper {
+    private final AuthorityRegistry authorityRegistry;
+
+    public UserMapper(AuthorityRegistry authorityRegistry) {
+        this.authorityRegistry = authorityRegistry;
+    }
 
     public List<UserDTO> usersToUserDTOs(List<User> users) {
         return users.stream().filter(Objects::nonNull).map(this::userToUserDTO).collect(Collectors.toList());
@@ -24,6 +31,26 @@ public class UserMapper {
         return new UserDTO(user);
     }
 
+    /**
+     * Map a user listing projection, whose authorities are added afterwards.
+     */
+    public UserDTO userSummaryToUserDTO(UserSummary user) {
+        return new UserDTO(
+            user.getId(),
+            user.getLogin(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getEmail(),
+            user.getImageUrl(),
+            user.isActivated(),
+            user.getLangKey(),
+            user.getCreatedBy(),
+            user.getCreatedDate(),
+            user.getLastModifiedBy(),
+            user.getLastModifiedDate()
+        );
+    }
+
     public List<User> userDTOsToUsers(List<UserDTO> userDTOs) {
         return userDTOs.stream().filter(Objects::nonNull).map(this::userDTOToUser).collect(Collectors.toList());
     }
@@ -55,11 +82,16 @@ public class UserMapper {
                 authoritiesAsString
                     .stream()
                     .map(
-                        string -> {
-                            Authority auth = new Authority();
-                            auth.setName(string);
-                            return auth;
-                        }
+                        string ->
+                            authorityRegistry
+                                .findByName(string)
+                                .orElseGet(
+                                    () -> {
+                                        Authority auth = new Authority();
+                                        auth.setName(string);
+                                        return auth;
+                                    }
+                                )
                     )
                     .collect(Collectors.toSet());
         }
@@ -2,6 +2,7 @@ package com.elened.inteduweb.web.rest;
 
 import com.elened.inteduweb.domain.User;
 import com.elened.inteduweb.repository.UserRepository;
+import com.elened.inteduweb.security.AuthenticationRateLimiter;
 import com.elened.inteduweb.security.SecurityUtils;
 import com.elened.inteduweb.service.MailService;
 import com.elened.inteduweb.service.UserService;
@@ -41,10 +42,18 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final AuthenticationRateLimiter authenticationRateLimiter;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        MailService mailService,
+        AuthenticationRateLimiter authenticationRateLimiter
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.authenticationRateLimiter = authenticationRateLimiter;
     }
 
     /**
@@ -152,9 +161,12 @@ public class AccountResource {
      * {@code POST   /account/reset-password/init} : Send an email to reset the password of the user.
      *
      * @param mail the mail of the user.
+     * @param request the HTTP request.
+     * @throws com.elened.inteduweb.security.RateLimitExceededException {@code 429 (Too Many Requests)} if too many resets were requested.
      */
     @PostMapping(path = "/account/reset-password/init")
-    public void requestPasswordReset(@RequestBody String mail) {
+    public void requestPasswordReset(@RequestBody String mail, HttpServletRequest request) {
+        authenticationRateLimiter.check(request, mail);
         Optional<User> user = userService.requestPasswordReset(mail);
         if (user.isPresent()) {
             mailService.sendPasswordResetMail(user.get());
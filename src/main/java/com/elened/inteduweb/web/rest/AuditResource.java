@@ -1,19 +1,33 @@
 package com.elened.inteduweb.web.rest;
 
+import com.elened.inteduweb.config.audit.AuditEventRollups;
+import com.elened.inteduweb.service.AuditEventExportService;
+import com.elened.inteduweb.service.AuditEventRollupService;
 import com.elened.inteduweb.service.AuditEventService;
+import com.elened.inteduweb.service.dto.KeysetPage;
 import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -22,10 +36,26 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 @RestController
 @RequestMapping("/management/audits")
 public class AuditResource {
+    private static final String DATE_PROPERTY = "auditEventDate";
+
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+
+    private final Logger log = LoggerFactory.getLogger(AuditResource.class);
+
     private final AuditEventService auditEventService;
 
-    public AuditResource(AuditEventService auditEventService) {
+    private final AuditEventExportService auditEventExportService;
+
+    private final AuditEventRollupService auditEventRollupService;
+
+    public AuditResource(
+        AuditEventService auditEventService,
+        AuditEventExportService auditEventExportService,
+        AuditEventRollupService auditEventRollupService
+    ) {
         this.auditEventService = auditEventService;
+        this.auditEventExportService = auditEventExportService;
+        this.auditEventRollupService = auditEventRollupService;
     }
 
     /**
@@ -49,7 +79,7 @@ public class AuditResource {
      * @param pageable the pagination information.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of {@link AuditEvent} in body.
      */
-    @GetMapping(params = { "fromDate", "toDate" })
+    @GetMapping(params = { "fromDate", "toDate", "!cursor" })
     public ResponseEntity<List<AuditEvent>> getByDates(
         @RequestParam(value = "fromDate") LocalDate fromDate,
         @RequestParam(value = "toDate") LocalDate toDate,
@@ -63,6 +93,133 @@ public class AuditResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * {@code GET  /audits?cursor=} : get a page of {@link AuditEvent}s by position rather than by offset.
+     * <p>
+     * The events are read in the order of their date, descending unless sorted by {@code auditEventDate,asc}, after (or
+     * before) the position of the cursor, empty for the first page. The {@code Link} header holds the cursors of the
+     * pages around it; the events are not counted.
+     *
+     * @param cursor the cursor of the page.
+     * @param type the type of the {@link AuditEvent}s to get, if any.
+     * @param fromDate the start of the time period of {@link AuditEvent}s to get, if any.
+     * @param toDate the end of the time period of {@link AuditEvent}s to get, if any.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of {@link AuditEvent}s in body, or
+     * status {@code 400 (Bad Request)} if the events are sorted by another property than their date.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<AuditEvent>> getPage(
+        @RequestParam String cursor,
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) LocalDate fromDate,
+        @RequestParam(required = false) LocalDate toDate,
+        Pageable pageable
+    ) {
+        Sort sort = pageable.getSort();
+        if (!sort.stream().map(Sort.Order::getProperty).allMatch(DATE_PROPERTY::equals)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Sort.Order order = sort.getOrderFor(DATE_PROPERTY);
+        Sort.Direction direction = order != null ? order.getDirection() : Sort.Direction.DESC;
+        Instant from = fromDate != null ? fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant() : null;
+        Instant to = toDate != null ? toDate.atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant() : null;
+
+        KeysetPage<AuditEvent> page = auditEventService.findPage(type, from, to, direction, cursor, pageable.getPageSize());
+        List<String> links = new ArrayList<>();
+        if (page.getNextCursor() != null) {
+            links.add(link(page.getNextCursor(), "next"));
+        }
+        if (page.getPreviousCursor() != null) {
+            links.add(link(page.getPreviousCursor(), "prev"));
+        }
+        links.add(link("", "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    private static String link(String cursor, String relType) {
+        String uri = ServletUriComponentsBuilder
+            .fromCurrentRequest()
+            .replaceQueryParam("page")
+            .replaceQueryParam("cursor", cursor)
+            .toUriString();
+        return "<" + uri + ">; rel=\"" + relType + "\"";
+    }
+
+    /**
+     * {@code GET  /audits/export} : export the {@link AuditEvent}s, one JSON event per line, in the order of their date.
+     * <p>
+     * The events are streamed from the database to the response in constant memory, and form a consistent snapshot.
+     * The response is compressed if the client accepts gzip.
+     *
+     * @param principal the principal of the {@link AuditEvent}s to export, if any.
+     * @param type the type of the {@link AuditEvent}s to export, if any.
+     * @param fromDate the start of the time period of {@link AuditEvent}s to export, if any.
+     * @param toDate the end of the time period of {@link AuditEvent}s to export, if any.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the {@link AuditEvent}s in body.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+        @RequestParam(required = false) String principal,
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) LocalDate fromDate,
+        @RequestParam(required = false) LocalDate toDate,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        Instant from = fromDate != null ? fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant() : null;
+        Instant to = toDate != null ? toDate.atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant() : null;
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+            long exported = auditEventExportService.exportNdjson(target, principal, type, from, to);
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            log.debug("Exported {} audit events", exported);
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity
+            .ok()
+            .contentType(MediaType.valueOf("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audits.ndjson\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * {@code GET  /audits/rollups} : get the counts of the {@link AuditEvent}s by type and of the busiest principals,
+     * by minute, hour or day, from memory.
+     * <p>
+     * The counts are the ones of the node serving the request: the events added on the other nodes since they started
+     * are missing. The rates of the whole cluster are given by the {@code audit.events} counter of the metrics,
+     * summed over the nodes by the monitoring.
+     *
+     * @param granularity the duration of the buckets: {@code minute}, {@code hour} or {@code day}.
+     * @param top the maximum number of principals of each bucket to get.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the counts by bucket in body, from the oldest
+     * to the current one, or status {@code 400 (Bad Request)} if the granularity is unknown.
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<AuditEventRollups.Rollup>> getRollups(
+        @RequestParam(defaultValue = "minute") String granularity,
+        @RequestParam(defaultValue = "10") int top
+    ) {
+        AuditEventRollups.Granularity parsed = Arrays
+            .stream(AuditEventRollups.Granularity.values())
+            .filter(value -> value.name().equalsIgnoreCase(granularity))
+            .findFirst()
+            .orElse(null);
+        if (parsed == null || top < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(auditEventRollupService.getRollups(parsed, top));
+    }
+
     /**
      * {@code GET  /audits/:id} : get an {@link AuditEvent} by id.
      *
@@ -0,0 +1,41 @@
+package com.elened.inteduweb.web.rest;
+
+import com.elened.inteduweb.config.cache.CacheInvalidation;
+import com.elened.inteduweb.config.cache.InvalidatingCacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller receiving the {@link CacheInvalidation}s sent by the other instances of the application.
+ */
+@RestController
+@RequestMapping("/management")
+@ConditionalOnProperty(prefix = "application.cache.invalidation", name = "enabled", havingValue = "true")
+public class CacheInvalidationResource {
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationResource.class);
+
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationResource(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * {@code POST  /cache-invalidations} : evict an entry of a local cache, without broadcasting it again.
+     *
+     * @param invalidation the invalidation.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @PostMapping("/cache-invalidations")
+    public ResponseEntity<Void> invalidate(@RequestBody CacheInvalidation invalidation) {
+        log.debug("REST request to apply {}", invalidation);
+        if (cacheManager instanceof InvalidatingCacheManager) {
+            ((InvalidatingCacheManager) cacheManager).invalidateLocally(invalidation);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
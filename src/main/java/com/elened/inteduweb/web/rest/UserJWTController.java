@@ -1,9 +1,13 @@
 package com.elened.inteduweb.web.rest;
 
+import com.elened.inteduweb.security.AuthenticationRateLimiter;
+import com.elened.inteduweb.security.SecurityUtils;
 import com.elened.inteduweb.security.jwt.JWTFilter;
 import com.elened.inteduweb.security.jwt.TokenProvider;
+import com.elened.inteduweb.security.jwt.TokenRevocationStore;
 import com.elened.inteduweb.web.rest.vm.LoginVM;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -12,6 +16,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -24,13 +29,25 @@ public class UserJWTController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final AuthenticationRateLimiter authenticationRateLimiter;
+
+    private final TokenRevocationStore tokenRevocationStore;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        AuthenticationRateLimiter authenticationRateLimiter,
+        TokenRevocationStore tokenRevocationStore
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.authenticationRateLimiter = authenticationRateLimiter;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     @PostMapping("/authenticate")
-    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM) {
+    public ResponseEntity<JWTToken> authorize(@Valid @RequestBody LoginVM loginVM, HttpServletRequest request) {
+        authenticationRateLimiter.check(request, loginVM.getUsername());
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
             loginVM.getUsername(),
             loginVM.getPassword()
@@ -45,6 +62,32 @@ public class UserJWTController {
         return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
     }
 
+    /**
+     * {@code POST  /logout} : revoke the JWT token of the current request.
+     *
+     * @param request the HTTP request carrying the token.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        String jwt = JWTFilter.resolveToken(request);
+        if (StringUtils.hasText(jwt)) {
+            tokenProvider.revokeToken(jwt);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * {@code POST  /logout-all} : revoke all the JWT tokens issued to the current user so far.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll() {
+        SecurityUtils.getCurrentUserLogin().ifPresent(tokenRevocationStore::revokeAllTokens);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Object to return as body in JWT Authentication.
      */
@@ -8,32 +8,46 @@ import com.elened.inteduweb.repository.UserRepository;
 import com.elened.inteduweb.repository.search.UserSearchRepository;
 import com.elened.inteduweb.security.AuthoritiesConstants;
 import com.elened.inteduweb.service.MailService;
+import com.elened.inteduweb.service.UserCursor;
+import com.elened.inteduweb.service.UserExportService;
+import com.elened.inteduweb.service.UserImportService;
 import com.elened.inteduweb.service.UserService;
+import com.elened.inteduweb.service.dto.KeysetPage;
 import com.elened.inteduweb.service.dto.UserDTO;
+import com.elened.inteduweb.service.dto.UserImportReportDTO;
 import com.elened.inteduweb.web.rest.errors.BadRequestAlertException;
 import com.elened.inteduweb.web.rest.errors.EmailAlreadyUsedException;
 import com.elened.inteduweb.web.rest.errors.LoginAlreadyUsedException;
 import io.github.jhipster.web.util.HeaderUtil;
 import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -63,8 +77,12 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 @RestController
 @RequestMapping("/api")
 public class UserResource {
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+
     private static final List<String> ALLOWED_ORDERED_PROPERTIES = Collections.unmodifiableList(
-        Arrays.asList("id", "login", "firstName", "lastName", "email", "activated", "langKey")
+        Arrays.asList("id", "login", "firstName", "lastName", "email", "activated", "langKey", "createdDate")
     );
 
     private final Logger log = LoggerFactory.getLogger(UserResource.class);
@@ -80,16 +98,24 @@ public class UserResource {
 
     private final UserSearchRepository userSearchRepository;
 
+    private final UserImportService userImportService;
+
+    private final UserExportService userExportService;
+
     public UserResource(
         UserService userService,
         UserRepository userRepository,
         MailService mailService,
-        UserSearchRepository userSearchRepository
+        UserSearchRepository userSearchRepository,
+        UserImportService userImportService,
+        UserExportService userExportService
     ) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
         this.userSearchRepository = userSearchRepository;
+        this.userImportService = userImportService;
+        this.userExportService = userExportService;
     }
 
     /**
@@ -126,6 +152,43 @@ public class UserResource {
         }
     }
 
+    /**
+     * {@code POST  /users/import}  : Creates users in bulk from a CSV file.
+     * <p>
+     * The first line names the columns, among login, email, firstName, lastName, imageUrl, langKey and authorities,
+     * the latter separated by semicolons. Rows are imported by chunks, invalid rows are reported and skipped.
+     *
+     * @param csv the UTF-8 CSV file.
+     * @param sendEmails whether the creation email is sent to the imported users.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the report of the import.
+     */
+    @PostMapping(value = "/users/import", consumes = "text/csv")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<UserImportReportDTO> importUsersFromCsv(
+        InputStream csv,
+        @RequestParam(defaultValue = "true") boolean sendEmails
+    ) {
+        log.debug("REST request to import Users from CSV");
+        return ResponseEntity.ok(userImportService.importCsv(csv, sendEmails));
+    }
+
+    /**
+     * {@code POST  /users/import}  : Creates users in bulk from a file with one JSON user per line.
+     *
+     * @param ndjson the UTF-8 NDJSON file.
+     * @param sendEmails whether the creation email is sent to the imported users.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the report of the import.
+     */
+    @PostMapping(value = "/users/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<UserImportReportDTO> importUsersFromNdjson(
+        InputStream ndjson,
+        @RequestParam(defaultValue = "true") boolean sendEmails
+    ) {
+        log.debug("REST request to import Users from NDJSON");
+        return ResponseEntity.ok(userImportService.importNdjson(ndjson, sendEmails));
+    }
+
     /**
      * {@code PUT /users} : Updates an existing User.
      *
@@ -156,33 +219,159 @@ public class UserResource {
 
     /**
      * {@code GET /users} : get all users.
+     * <p>
+     * Pages are found by offset, unless a {@code cursor} is given: the users are then read after (or before) the
+     * position of the cursor, empty for the first page, and the {@code Link} header holds the cursors of the pages
+     * around it. The total number of users can be counted, estimated from the database statistics, or skipped.
      *
      * @param pageable the pagination information.
+     * @param cursor the cursor of the page, or {@code null} to paginate by offset.
+     * @param count how the total number of users is computed: {@code exact}, {@code estimate} or {@code none}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllUsers(Pageable pageable) {
-        if (!onlyContainsAllowedProperties(pageable)) {
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+        Pageable pageable,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "exact") String count
+    ) {
+        TotalCount totalCount = TotalCount.parse(count);
+        if (totalCount == null || !onlyContainsAllowedProperties(pageable)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (cursor != null) {
+            return getUsersPage(pageable, cursor, totalCount);
+        }
+
+        if (totalCount == TotalCount.EXACT) {
+            final Page<UserDTO> page = userService.getAllManagedUsers(pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        }
+        final Slice<UserDTO> slice = userService.getManagedUsersSlice(pageable);
+        if (totalCount == TotalCount.ESTIMATE) {
+            Page<UserDTO> page = new PageImpl<>(slice.getContent(), pageable, userService.estimateManagedUsers());
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        }
+        List<String> links = new ArrayList<>();
+        if (slice.hasNext()) {
+            links.add(link("page", String.valueOf(slice.getNumber() + 1), "next"));
+        }
+        if (slice.hasPrevious()) {
+            links.add(link("page", String.valueOf(slice.getNumber() - 1), "prev"));
+        }
+        links.add(link("page", "0", "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * {@code GET /users/export} : export all users.
+     * <p>
+     * The users are streamed from the database to the response in constant memory, and form a consistent snapshot.
+     * The response is compressed if the client accepts gzip.
+     *
+     * @param format the format of the export: {@code ndjson} for one JSON user per line, or {@code csv}.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+        @RequestParam(defaultValue = "ndjson") String format,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
             return ResponseEntity.badRequest().build();
         }
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+            long exported = csv ? userExportService.exportCsv(target) : userExportService.exportNdjson(target);
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+            log.debug("Exported {} users", exported);
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity
+            .ok()
+            .contentType(csv ? MediaType.valueOf("text/csv") : MediaType.valueOf("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + (csv ? "csv" : "ndjson") + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 
-        final Page<UserDTO> page = userService.getAllManagedUsers(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+    private ResponseEntity<List<UserDTO>> getUsersPage(Pageable pageable, String cursor, TotalCount totalCount) {
+        Sort sort = pageable.getSort();
+        if (!sort.stream().map(Sort.Order::getProperty).allMatch(UserCursor.KEYSET_ORDERED_PROPERTIES::contains)) {
+            return ResponseEntity.badRequest().build();
+        }
+        KeysetPage<UserDTO> page = userService.getManagedUsersPage(sort, cursor, pageable.getPageSize());
+        List<String> links = new ArrayList<>();
+        if (page.getNextCursor() != null) {
+            links.add(link("cursor", page.getNextCursor(), "next"));
+        }
+        if (page.getPreviousCursor() != null) {
+            links.add(link("cursor", page.getPreviousCursor(), "prev"));
+        }
+        links.add(link("cursor", "", "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        if (totalCount != TotalCount.NONE) {
+            long total = totalCount == TotalCount.EXACT ? userService.countManagedUsers() : userService.estimateManagedUsers();
+            headers.add(HEADER_X_TOTAL_COUNT, Long.toString(total));
+        }
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    private static String link(String parameter, String value, String relType) {
+        String uri = ServletUriComponentsBuilder
+            .fromCurrentRequest()
+            .replaceQueryParam("page")
+            .replaceQueryParam("cursor")
+            .replaceQueryParam(parameter, value)
+            .toUriString();
+        return "<" + uri + ">; rel=\"" + relType + "\"";
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
 
+    /**
+     * How the total number of users of a listing is computed.
+     */
+    private enum TotalCount {
+        EXACT,
+        ESTIMATE,
+        NONE;
+
+        private static TotalCount parse(String value) {
+            return Arrays.stream(values()).filter(totalCount -> totalCount.name().equalsIgnoreCase(value)).findFirst().orElse(null);
+        }
+    }
+
     /**
      * Gets a list of all roles.
+     * <p>
+     * Roles almost never change, so clients may keep them for an hour, and then revalidate them with their ETag.
      * @return a string list of all roles.
      */
     @GetMapping("/users/authorities")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public List<String> getAuthorities() {
-        return userService.getAuthorities();
+    public ResponseEntity<List<String>> getAuthorities() {
+        List<String> authorities = userService.getAuthorities();
+        return ResponseEntity
+            .ok()
+            .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+            .eTag(Integer.toHexString(authorities.hashCode()))
+            .body(authorities);
     }
 
     /**
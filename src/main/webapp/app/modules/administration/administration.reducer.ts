@@ -13,6 +13,11 @@ export const ACTION_TYPES = {
   FETCH_AUDITS: 'administration/FETCH_AUDITS',
 };
 
+export interface IAuditCursors {
+  next: string;
+  prev: string;
+}
+
 const initialState = {
   loading: false,
   errorMessage: null,
@@ -27,11 +32,27 @@ const initialState = {
     env: {} as any,
   },
   audits: [] as any[],
-  totalItems: 0,
+  auditCursors: { next: null, prev: null } as IAuditCursors,
 };
 
 export type AdministrationState = Readonly<typeof initialState>;
 
+/**
+ * Read the cursors of the next and previous pages of audits from the Link header, the audits not being counted.
+ */
+export const parseAuditCursors = (header: string): IAuditCursors => {
+  const cursors: IAuditCursors = { next: null, prev: null };
+  if (header) {
+    header.split(',').forEach(link => {
+      const match = /<([^>]*)>;\s*rel="(\w+)"/.exec(link);
+      if (match && match[2] in cursors) {
+        cursors[match[2]] = new URL(match[1], window.location.href).searchParams.get('cursor');
+      }
+    });
+  }
+  return cursors;
+};
+
 // Reducer
 
 export default (state: AdministrationState = initialState, action): AdministrationState => {
@@ -103,7 +124,7 @@ export default (state: AdministrationState = initialState, action): Administrati
         ...state,
         loading: false,
         audits: action.payload.data,
-        totalItems: parseInt(action.payload.headers['x-total-count'], 10),
+        auditCursors: parseAuditCursors(action.payload.headers.link),
       };
     case SUCCESS(ACTION_TYPES.FETCH_HEALTH):
       return {
@@ -159,8 +180,14 @@ export const getEnv = () => ({
   payload: axios.get('management/env'),
 });
 
-export const getAudits = (page, size, sort, fromDate, toDate) => {
-  let requestUrl = `management/audits${sort ? `?page=${page}&size=${size}&sort=${sort}` : ''}`;
+/**
+ * Get a page of audits by position, in the order of their date: an empty cursor gets the first page.
+ */
+export const getAudits = (cursor, size, order, fromDate, toDate) => {
+  let requestUrl = `management/audits?cursor=${encodeURIComponent(cursor || '')}&size=${size}`;
+  if (order) {
+    requestUrl += `&sort=auditEventDate,${order}`;
+  }
   if (fromDate) {
     requestUrl += `&fromDate=${fromDate}`;
   }
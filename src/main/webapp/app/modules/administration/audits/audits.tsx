@@ -1,13 +1,12 @@
 import React, { useState, useEffect } from 'react';
 import { connect } from 'react-redux';
 import { RouteComponentProps } from 'react-router-dom';
-import { Input, Row, Table } from 'reactstrap';
-import { Translate, TextFormat, JhiPagination, JhiItemCount, getSortState, IPaginationBaseState } from 'react-jhipster';
+import { Button, Input, Row, Table } from 'reactstrap';
+import { Translate, TextFormat } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
 
 import { APP_TIMESTAMP_FORMAT } from 'app/config/constants';
 import { ITEMS_PER_PAGE } from 'app/shared/util/pagination.constants';
-import { overridePaginationStateWithQueryParams } from 'app/shared/util/entity-utils';
 
 import { IRootState } from 'app/shared/reducers';
 import { getAudits } from '../administration.reducer';
@@ -32,66 +31,32 @@ const today = (): string => {
 };
 
 export const AuditsPage = (props: IAuditsPageProps) => {
-  const [pagination, setPagination] = useState(
-    overridePaginationStateWithQueryParams(getSortState(props.location, ITEMS_PER_PAGE), props.location.search)
-  );
+  const [order, setOrder] = useState('desc');
+  const [cursor, setCursor] = useState('');
   const [fromDate, setFromDate] = useState(previousMonth());
   const [toDate, setToDate] = useState(today());
 
   useEffect(() => {
-    // eslint-disable-next-line @typescript-eslint/no-use-before-define
-    getAllAudits();
-  }, [fromDate, toDate, pagination.activePage, pagination.order, pagination.sort]);
-
-  useEffect(() => {
-    // eslint-disable-next-line @typescript-eslint/no-use-before-define
-    transition();
-  }, [pagination.activePage, pagination.order, pagination.sort]);
+    props.getAudits(cursor, ITEMS_PER_PAGE, order, fromDate, toDate);
+  }, [fromDate, toDate, order, cursor]);
 
-  useEffect(() => {
-    const params = new URLSearchParams(props.location.search);
-    const page = params.get('page');
-    const sort = params.get('sort');
-    if (page && sort) {
-      const sortSplit = sort.split(',');
-      setPagination({
-        ...pagination,
-        activePage: +page,
-        sort: sortSplit[0],
-        order: sortSplit[1],
-      });
-    }
-  }, [props.location.search]);
-
-  const onChangeFromDate = evt => setFromDate(evt.target.value);
-
-  const onChangeToDate = evt => setToDate(evt.target.value);
-
-  const sort = p => () =>
-    setPagination({
-      ...pagination,
-      order: pagination.order === 'asc' ? 'desc' : 'asc',
-      sort: p,
-    });
-
-  const transition = () => {
-    const endURL = `?page=${pagination.activePage}&sort=${pagination.sort},${pagination.order}`;
-    if (props.location.search !== endURL) {
-      props.history.push(`${props.location.pathname}${endURL}`);
-    }
+  const onChangeFromDate = evt => {
+    setCursor('');
+    setFromDate(evt.target.value);
   };
 
-  const handlePagination = currentPage =>
-    setPagination({
-      ...pagination,
-      activePage: currentPage,
-    });
+  const onChangeToDate = evt => {
+    setCursor('');
+    setToDate(evt.target.value);
+  };
 
-  const getAllAudits = () => {
-    props.getAudits(pagination.activePage - 1, pagination.itemsPerPage, `${pagination.sort},${pagination.order}`, fromDate, toDate);
+  // Audits are paged by position, which only works in the order of their date
+  const sortByDate = () => {
+    setCursor('');
+    setOrder(order === 'asc' ? 'desc' : 'asc');
   };
 
-  const { audits, totalItems } = props;
+  const { audits, auditCursors } = props;
 
   return (
     <div>
@@ -108,17 +73,15 @@ export const AuditsPage = (props: IAuditsPageProps) => {
         <Table striped responsive>
           <thead>
             <tr>
-              <th onClick={sort('auditEventDate')}>
+              <th onClick={sortByDate}>
                 <Translate contentKey="audits.table.header.date">Date</Translate>
                 <FontAwesomeIcon icon="sort" />
               </th>
-              <th onClick={sort('principal')}>
+              <th>
                 <Translate contentKey="audits.table.header.principal">User</Translate>
-                <FontAwesomeIcon icon="sort" />
               </th>
-              <th onClick={sort('auditEventType')}>
+              <th>
                 <Translate contentKey="audits.table.header.status">State</Translate>
-                <FontAwesomeIcon icon="sort" />
               </th>
               <th>
                 <Translate contentKey="audits.table.header.data">Extra data</Translate>
@@ -144,31 +107,22 @@ export const AuditsPage = (props: IAuditsPageProps) => {
           <Translate contentKey="audits.notFound">No audit found</Translate>
         </div>
       )}
-      {props.totalItems ? (
-        <div className={audits && audits.length > 0 ? '' : 'd-none'}>
-          <Row className="justify-content-center">
-            <JhiItemCount page={pagination.activePage} total={totalItems} itemsPerPage={pagination.itemsPerPage} i18nEnabled />
-          </Row>
-          <Row className="justify-content-center">
-            <JhiPagination
-              activePage={pagination.activePage}
-              onSelect={handlePagination}
-              maxButtons={5}
-              itemsPerPage={pagination.itemsPerPage}
-              totalItems={props.totalItems}
-            />
-          </Row>
-        </div>
-      ) : (
-        ''
-      )}
+      <Row className="justify-content-center">
+        <Button color="secondary" disabled={!auditCursors.prev} onClick={() => setCursor(auditCursors.prev)} id="audits-previous">
+          <Translate contentKey="audits.pagination.previous">Previous</Translate>
+        </Button>
+        &nbsp;
+        <Button color="secondary" disabled={!auditCursors.next} onClick={() => setCursor(auditCursors.next)} id="audits-next">
+          <Translate contentKey="audits.pagination.next">Next</Translate>
+        </Button>
+      </Row>
     </div>
   );
 };
 
 const mapStateToProps = (storeState: IRootState) => ({
   audits: storeState.administration.audits,
-  totalItems: storeState.administration.totalItems,
+  auditCursors: storeState.administration.auditCursors,
 });
 
 const mapDispatchToProps = { getAudits };
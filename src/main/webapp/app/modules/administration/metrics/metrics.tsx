@@ -10,6 +10,7 @@ import {
   JvmThreads,
   EndpointsRequestsMetrics,
   SystemMetrics,
+  TextFormat,
   Translate,
 } from 'react-jhipster';
 import { FontAwesomeIcon } from '@fortawesome/react-fontawesome';
@@ -104,6 +105,46 @@ export const MetricsPage = (props: IMetricsPageProps) => {
         ''
       )}
 
+      {metrics.cache ? (
+        <Row>
+          <Col sm="12">
+            <h3>Cache sizing</h3>
+            <Table className="table table-striped" responsive>
+              <thead>
+                <tr>
+                  <th>Cache name</th>
+                  <th className="text-right">Entries</th>
+                  <th className="text-right">Evictions</th>
+                  <th className="text-right">Estimated size (KB)</th>
+                </tr>
+              </thead>
+              <tbody>
+                {Object.keys(metrics.cache).map(key => (
+                  <tr key={key}>
+                    <td>{key}</td>
+                    <td className="text-right">
+                      <TextFormat value={metrics.cache[key]['cache.size'] || 0} type="number" format={APP_WHOLE_NUMBER_FORMAT} />
+                    </td>
+                    <td className="text-right">
+                      <TextFormat value={metrics.cache[key]['cache.evictions'] || 0} type="number" format={APP_WHOLE_NUMBER_FORMAT} />
+                    </td>
+                    <td className="text-right">
+                      <TextFormat
+                        value={(metrics.cache[key]['cache.heap.bytes'] || 0) / 1024}
+                        type="number"
+                        format={APP_WHOLE_NUMBER_FORMAT}
+                      />
+                    </td>
+                  </tr>
+                ))}
+              </tbody>
+            </Table>
+          </Col>
+        </Row>
+      ) : (
+        ''
+      )}
+
       {metrics.databases && JSON.stringify(metrics.databases) !== '{}' ? (
         <Row>
           <Col sm="12">
@@ -0,0 +1,52 @@
+package com.elened.inteduweb.config;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Unit tests for the validation of the per-cache settings of {@link CacheConfiguration}.
+ */
+public class CacheConfigurationTest {
+
+    @Test
+    public void testValidCacheSpec() {
+        ApplicationProperties.Cache.CacheSpec cacheSpec = new ApplicationProperties.Cache.CacheSpec();
+        cacheSpec.setMaxEntries(10000L);
+        cacheSpec.setOffHeapSize(DataSize.ofMegabytes(64));
+        cacheSpec.setTimeToIdleSeconds(600L);
+
+        assertThatCode(() -> CacheConfiguration.validate("usersByLogin", cacheSpec)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void testEntriesAndBytesAreExclusive() {
+        ApplicationProperties.Cache.CacheSpec cacheSpec = new ApplicationProperties.Cache.CacheSpec();
+        cacheSpec.setMaxEntries(10000L);
+        cacheSpec.setHeapSize(DataSize.ofMegabytes(10));
+
+        assertThatThrownBy(() -> CacheConfiguration.validate("usersByLogin", cacheSpec))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("usersByLogin");
+    }
+
+    @Test
+    public void testTimeToLiveAndTimeToIdleAreExclusive() {
+        ApplicationProperties.Cache.CacheSpec cacheSpec = new ApplicationProperties.Cache.CacheSpec();
+        cacheSpec.setTimeToLiveSeconds(3600L);
+        cacheSpec.setTimeToIdleSeconds(600L);
+
+        assertThatThrownBy(() -> CacheConfiguration.validate("usersByLogin", cacheSpec)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testOffHeapMustBeLargerThanHeap() {
+        ApplicationProperties.Cache.CacheSpec cacheSpec = new ApplicationProperties.Cache.CacheSpec();
+        cacheSpec.setHeapSize(DataSize.ofMegabytes(64));
+        cacheSpec.setOffHeapSize(DataSize.ofMegabytes(32));
+
+        assertThatThrownBy(() -> CacheConfiguration.validate("usersByLogin", cacheSpec)).isInstanceOf(IllegalStateException.class);
+    }
+}
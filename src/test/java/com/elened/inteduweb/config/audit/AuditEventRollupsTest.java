@@ -0,0 +1,99 @@
+package com.elened.inteduweb.config.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AuditEventRollups}.
+ */
+public class AuditEventRollupsTest {
+    private ApplicationProperties applicationProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testEventsAreCountedByTypeInEveryGranularity() {
+        AuditEventRollups rollups = new AuditEventRollups(applicationProperties, meterRegistry);
+        Instant now = Instant.now();
+
+        rollups.record("AUTHENTICATION_SUCCESS", "user", now);
+        rollups.record("AUTHENTICATION_SUCCESS", "admin", now);
+        rollups.record("AUTHENTICATION_FAILURE", "user", now);
+
+        for (AuditEventRollups.Granularity granularity : AuditEventRollups.Granularity.values()) {
+            AuditEventRollups.Rollup current = bucketWithEvents(rollups, granularity);
+            assertThat(current.getTypes()).containsEntry("AUTHENTICATION_SUCCESS", 2L).containsEntry("AUTHENTICATION_FAILURE", 1L);
+            assertThat(current.getPrincipals()).containsExactly(entry("user", 2L), entry("admin", 1L));
+        }
+        assertThat(meterRegistry.get("audit.events").tag("type", "AUTHENTICATION_SUCCESS").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testBucketsCoverTheirWindow() {
+        applicationProperties.getAuditRollup().setMinutes(5);
+        AuditEventRollups rollups = new AuditEventRollups(applicationProperties, meterRegistry);
+        Instant now = Instant.now();
+
+        rollups.seed("AUTHENTICATION_SUCCESS", "user", now.minus(2, ChronoUnit.MINUTES), 1);
+        rollups.seed("AUTHENTICATION_SUCCESS", "user", now.minus(10, ChronoUnit.MINUTES), 1);
+
+        List<AuditEventRollups.Rollup> buckets = rollups.getRollups(AuditEventRollups.Granularity.MINUTE, 10);
+        assertThat(buckets).hasSize(5);
+        assertThat(buckets.stream().mapToLong(bucket -> bucket.getTypes().getOrDefault("AUTHENTICATION_SUCCESS", 0L)).sum())
+            .isEqualTo(1);
+        // Seeded events are not counted again by the meter, which only counts the events added since the startup
+        assertThat(meterRegistry.find("audit.events").counter()).isNull();
+    }
+
+    @Test
+    public void testSeededEventsAreWeighted() {
+        AuditEventRollups rollups = new AuditEventRollups(applicationProperties, meterRegistry);
+        Instant now = Instant.now();
+
+        // A collapsed event of 5 events, and a sampled event with a rate of 10
+        rollups.seed("AUTHENTICATION_SUCCESS", "user", now, 5);
+        rollups.seed("AUTHENTICATION_SUCCESS", "admin", now, 10);
+        rollups.seed("AUTHENTICATION_FAILURE", "user", now, 1);
+
+        AuditEventRollups.Rollup current = bucketWithEvents(rollups, AuditEventRollups.Granularity.DAY);
+        assertThat(current.getTypes()).containsEntry("AUTHENTICATION_SUCCESS", 15L).containsEntry("AUTHENTICATION_FAILURE", 1L);
+        assertThat(current.getPrincipals()).containsExactly(entry("admin", 10L), entry("user", 6L));
+    }
+
+    @Test
+    public void testLeastActivePrincipalIsReplacedWhenTheCapacityIsReached() {
+        applicationProperties.getAuditRollup().setPrincipalCapacity(2);
+        AuditEventRollups rollups = new AuditEventRollups(applicationProperties, meterRegistry);
+        Instant now = Instant.now();
+
+        for (int i = 0; i < 3; i++) {
+            rollups.record("AUTHENTICATION_SUCCESS", "busy", now);
+        }
+        rollups.record("AUTHENTICATION_SUCCESS", "quiet", now);
+        rollups.record("AUTHENTICATION_SUCCESS", "newcomer", now);
+
+        // The newcomer inherits the count of the principal it replaced, an upper bound of its own count
+        assertThat(bucketWithEvents(rollups, AuditEventRollups.Granularity.HOUR).getPrincipals())
+            .containsExactly(entry("busy", 3L), entry("newcomer", 2L));
+    }
+
+    private static AuditEventRollups.Rollup bucketWithEvents(AuditEventRollups rollups, AuditEventRollups.Granularity granularity) {
+        // The events may not be in the last bucket, if the time moved to the next one in between
+        List<AuditEventRollups.Rollup> buckets = rollups.getRollups(granularity, 10);
+        return buckets.stream().filter(bucket -> !bucket.getTypes().isEmpty()).findFirst().orElseThrow(AssertionError::new);
+    }
+}
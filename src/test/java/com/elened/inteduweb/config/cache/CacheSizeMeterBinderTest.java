@@ -0,0 +1,51 @@
+package com.elened.inteduweb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link CacheSizeMeterBinder}.
+ */
+public class CacheSizeMeterBinderTest {
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        cacheManager.createCache(
+            "sizedCache",
+            Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(100)).build()
+            )
+        );
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheManager.destroyCache("sizedCache");
+    }
+
+    @Test
+    public void testSizeAndEstimatedBytes() {
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache("sizedCache");
+        for (int i = 0; i < 10; i++) {
+            cache.put("key-" + i, "value-" + i);
+        }
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new CacheSizeMeterBinder(cacheManager, "cacheManager", 0).bindTo(meterRegistry);
+
+        assertThat(meterRegistry.get("cache.size").tag("cache", "sizedCache").gauge().value()).isEqualTo(10);
+        assertThat(meterRegistry.get("cache.heap.bytes").tag("cache", "sizedCache").gauge().value()).isPositive();
+    }
+}
@@ -0,0 +1,90 @@
+package com.elened.inteduweb.config.cache;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.elened.inteduweb.security.jwt.TokenProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Test class for the {@link DiscoveryCacheInvalidationPublisher}.
+ */
+public class DiscoveryCacheInvalidationPublisherTest {
+    private TokenProvider tokenProvider;
+
+    private RestTemplate restTemplate;
+
+    private DiscoveryClient discoveryClient;
+
+    private Registration registration;
+
+    @BeforeEach
+    public void setup() {
+        tokenProvider = mock(TokenProvider.class);
+        when(tokenProvider.createToken(any(), anyBoolean())).thenReturn("first-token", "second-token");
+        restTemplate = mock(RestTemplate.class);
+        discoveryClient = mock(DiscoveryClient.class);
+        registration = mock(Registration.class);
+        when(registration.getServiceId()).thenReturn("inteduweb");
+        when(registration.getInstanceId()).thenReturn("self");
+        when(discoveryClient.getInstances("inteduweb"))
+            .thenReturn(
+                Arrays.asList(
+                    new DefaultServiceInstance("self", "inteduweb", "localhost", 8080, false),
+                    new DefaultServiceInstance("other", "inteduweb", "localhost", 8081, false)
+                )
+            );
+    }
+
+    @Test
+    public void testTokenIsReusedAcrossInvalidations() {
+        DiscoveryCacheInvalidationPublisher publisher = createPublisher(Duration.ofHours(1));
+
+        publisher.publish(new CacheInvalidation("usersByLogin", "john"));
+        publisher.publish(new CacheInvalidation("usersByLogin", "jane"));
+
+        verify(tokenProvider, times(1)).createToken(any(), eq(false));
+        verify(restTemplate, times(2)).postForEntity(any(URI.class), argThat(this::hasFirstToken), eq(Void.class));
+    }
+
+    @Test
+    public void testTokenIsRenewedBeforeItExpires() {
+        DiscoveryCacheInvalidationPublisher publisher = createPublisher(Duration.ZERO);
+
+        publisher.publish(new CacheInvalidation("usersByLogin", "john"));
+        publisher.publish(new CacheInvalidation("usersByLogin", "jane"));
+
+        verify(tokenProvider, times(2)).createToken(any(), eq(false));
+    }
+
+    private boolean hasFirstToken(Object request) {
+        return "Bearer first-token".equals(((HttpEntity<?>) request).getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    private DiscoveryCacheInvalidationPublisher createPublisher(Duration tokenValidity) {
+        return new DiscoveryCacheInvalidationPublisher(
+            discoveryClient,
+            registration,
+            tokenProvider,
+            restTemplate,
+            Runnable::run,
+            tokenValidity
+        );
+    }
+}
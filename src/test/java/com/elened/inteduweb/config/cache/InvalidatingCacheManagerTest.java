@@ -0,0 +1,85 @@
+package com.elened.inteduweb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Test class for the {@link InvalidatingCacheManager}, with several instances running in the same JVM.
+ */
+public class InvalidatingCacheManagerTest {
+    private static final String CACHE_NAME = "usersByLogin";
+
+    private final List<InvalidatingCacheManager> instances = new ArrayList<>();
+
+    private int published;
+
+    @BeforeEach
+    public void setup() {
+        for (int i = 0; i < 3; i++) {
+            instances.add(createInstance());
+        }
+    }
+
+    @Test
+    public void testEvictionIsBroadcastToOtherInstances() {
+        for (InvalidatingCacheManager instance : instances) {
+            instance.getCache(CACHE_NAME).put("john", "John");
+        }
+
+        instances.get(0).getCache(CACHE_NAME).evict("john");
+
+        for (InvalidatingCacheManager instance : instances) {
+            assertThat(instance.getCache(CACHE_NAME).get("john")).isNull();
+        }
+        assertThat(published).isEqualTo(1);
+    }
+
+    @Test
+    public void testClearIsBroadcastToOtherInstances() {
+        for (InvalidatingCacheManager instance : instances) {
+            instance.getCache(CACHE_NAME).put("john", "John");
+            instance.getCache(CACHE_NAME).put("jane", "Jane");
+        }
+
+        instances.get(1).getCache(CACHE_NAME).clear();
+
+        for (InvalidatingCacheManager instance : instances) {
+            Cache cache = instance.getCache(CACHE_NAME);
+            assertThat(cache.get("john")).isNull();
+            assertThat(cache.get("jane")).isNull();
+        }
+    }
+
+    @Test
+    public void testOtherEntriesAreKept() {
+        for (InvalidatingCacheManager instance : instances) {
+            instance.getCache(CACHE_NAME).put("john", "John");
+            instance.getCache(CACHE_NAME).put("jane", "Jane");
+        }
+
+        instances.get(2).getCache(CACHE_NAME).evict("john");
+
+        for (InvalidatingCacheManager instance : instances) {
+            assertThat(instance.getCache(CACHE_NAME).get("jane")).isNotNull();
+        }
+    }
+
+    private InvalidatingCacheManager createInstance() {
+        CacheInvalidationPublisher publisher = invalidation -> {
+            published++;
+            instances.forEach(instance -> instance.invalidateLocally(invalidation));
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("cacheInvalidationPublisher", publisher);
+        ObjectProvider<CacheInvalidationPublisher> provider = beanFactory.getBeanProvider(CacheInvalidationPublisher.class);
+        return new InvalidatingCacheManager(new ConcurrentMapCacheManager(CACHE_NAME), provider);
+    }
+}
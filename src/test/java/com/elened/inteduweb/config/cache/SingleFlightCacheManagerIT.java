@@ -0,0 +1,93 @@
+package com.elened.inteduweb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.elened.inteduweb.InteduwebApp;
+import com.elened.inteduweb.domain.Authority;
+import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.AuthorityRepository;
+import com.elened.inteduweb.repository.UserRepository;
+import com.elened.inteduweb.security.AuthoritiesConstants;
+import java.util.Collections;
+import java.util.Objects;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the refresh-ahead of the {@link SingleFlightCacheManager}, through the Spring Data repositories.
+ */
+@SpringBootTest(
+    classes = InteduwebApp.class,
+    properties = {
+        "application.cache.caches.usersByLogin.time-to-live-seconds=3600",
+        "application.cache.caches.usersByLogin.refresh-ahead-seconds=1",
+    }
+)
+public class SingleFlightCacheManagerIT {
+    private static final String LOGIN = "refresh-ahead";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanup() {
+        userRepository.findOneByLogin(LOGIN).ifPresent(userRepository::delete);
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).clear();
+    }
+
+    @Test
+    public void testUserByLoginIsRefreshedAheadInTheBackground() throws Exception {
+        // The user is committed, as the refresh runs in its own transaction on another thread
+        User user = new User();
+        user.setLogin(LOGIN);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail(LOGIN + "@localhost");
+        user.setFirstName("before");
+        user.setAuthorities(Collections.singleton(authorityRepository.findById(AuthoritiesConstants.USER).get()));
+        userRepository.saveAndFlush(user);
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(LOGIN).get().getFirstName()).isEqualTo("before");
+
+        // Changed without evicting the cache, so only a refresh can bring the change
+        new TransactionTemplate(transactionManager)
+            .execute(
+                status ->
+                    entityManager
+                        .createQuery("update User u set u.firstName = 'after' where u.login = :login")
+                        .setParameter("login", LOGIN)
+                        .executeUpdate()
+            );
+
+        User cached = userRepository.findOneWithAuthoritiesByLogin(LOGIN).get();
+        assertThat(cached.getFirstName()).isEqualTo("before");
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!"after".equals(cached.getFirstName()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            // Each read of the stale entry returns it and starts a refresh, unless one is running
+            cached = userRepository.findOneWithAuthoritiesByLogin(LOGIN).get();
+        }
+
+        assertThat(cached.getFirstName()).isEqualTo("after");
+        // The authorities were loaded by the refresh, outside of any transaction of the caller
+        assertThat(cached.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+    }
+}
@@ -0,0 +1,136 @@
+package com.elened.inteduweb.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+/**
+ * Test class for the {@link SingleFlightCacheManager}.
+ */
+public class SingleFlightCacheManagerTest {
+    private static final String CACHE_NAME = "usersByLogin";
+
+    @Test
+    public void testConcurrentMissesRunTheLoaderOnce() throws Exception {
+        Cache cache = new SingleFlightCacheManager(
+            new ConcurrentMapCacheManager(CACHE_NAME),
+            Collections.emptyMap(),
+            name -> null,
+            Runnable::run
+        )
+            .getCache(CACHE_NAME);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(
+                    executor.submit(
+                        () ->
+                            cache.get(
+                                "john",
+                                () -> {
+                                    loads.incrementAndGet();
+                                    release.await();
+                                    return "John";
+                                }
+                            )
+                    )
+                );
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("John");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testStaleEntryIsRefreshedAheadByTheLoaderOfTheCache() {
+        AtomicInteger refreshes = new AtomicInteger();
+        RefreshAheadLoader loader = refreshAheadLoader(key -> key + "-refreshed-" + refreshes.incrementAndGet());
+        Cache cache = new SingleFlightCacheManager(
+            new ConcurrentMapCacheManager(CACHE_NAME),
+            Collections.singletonMap(CACHE_NAME, 0L),
+            name -> CACHE_NAME.equals(name) ? loader : null,
+            Runnable::run
+        )
+            .getCache(CACHE_NAME);
+
+        assertThat(cache.get("john", () -> "john-loaded")).isEqualTo("john-loaded");
+        // The current value is returned while the entry is reloaded, never with the value loader of the caller
+        assertThat(cache.get("john", () -> "john-loaded-again")).isEqualTo("john-loaded");
+
+        assertThat(cache.get("john", String.class)).isEqualTo("john-refreshed-1");
+    }
+
+    @Test
+    public void testStaleEntryWithoutLoaderIsNotRefreshedAhead() {
+        Cache cache = new SingleFlightCacheManager(
+            new ConcurrentMapCacheManager(CACHE_NAME),
+            Collections.singletonMap(CACHE_NAME, 0L),
+            name -> null,
+            Runnable::run
+        )
+            .getCache(CACHE_NAME);
+
+        assertThat(cache.get("john", () -> "john-loaded")).isEqualTo("john-loaded");
+        assertThat(cache.get("john", () -> "john-loaded-again")).isEqualTo("john-loaded");
+
+        assertThat(cache.get("john", String.class)).isEqualTo("john-loaded");
+    }
+
+    @Test
+    public void testEvictionDuringLoadIsNotOverwritten() {
+        Cache cache = new SingleFlightCacheManager(
+            new ConcurrentMapCacheManager(CACHE_NAME),
+            Collections.emptyMap(),
+            name -> null,
+            Runnable::run
+        )
+            .getCache(CACHE_NAME);
+
+        String value = cache.get(
+            "john",
+            () -> {
+                cache.evict("john");
+                return "John";
+            }
+        );
+
+        assertThat(value).isEqualTo("John");
+        assertThat(cache.get("john")).isNull();
+    }
+
+    private static RefreshAheadLoader refreshAheadLoader(Function<Object, Object> load) {
+        return new RefreshAheadLoader() {
+
+            @Override
+            public String getCacheName() {
+                return CACHE_NAME;
+            }
+
+            @Override
+            public Object load(Object key) {
+                return load.apply(key);
+            }
+        };
+    }
+}
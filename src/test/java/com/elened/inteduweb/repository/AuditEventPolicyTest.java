@@ -0,0 +1,144 @@
+package com.elened.inteduweb.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.config.ApplicationProperties.AuditPolicy.TypePolicy;
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AuditEventPolicy}.
+ */
+public class AuditEventPolicyTest {
+    private static final Instant NOW = Instant.parse("2020-10-25T10:00:00Z");
+
+    private final List<PersistentAuditEvent> written = new ArrayList<>();
+
+    private AuditEventWriter auditEventWriter;
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setup() {
+        auditEventWriter = mock(AuditEventWriter.class);
+        doAnswer(invocation -> written.add(invocation.getArgument(0))).when(auditEventWriter).write(any());
+        applicationProperties = new ApplicationProperties();
+    }
+
+    @Test
+    public void testEventsArePersistedByDefault() {
+        AuditEventPolicy policy = new AuditEventPolicy(auditEventWriter, applicationProperties);
+
+        policy.write(event("AUTHENTICATION_SUCCESS", "user", NOW));
+        policy.write(event("AUTHORIZATION_FAILURE", "user", NOW));
+
+        assertThat(written).extracting(PersistentAuditEvent::getAuditEventType).containsExactly("AUTHENTICATION_SUCCESS");
+        assertThat(written.get(0).getData()).isEmpty();
+    }
+
+    @Test
+    public void testEventsAreSampled() {
+        TypePolicy sample = typePolicy(TypePolicy.Mode.SAMPLE);
+        sample.setSampleRate(3);
+        AuditEventPolicy policy = new AuditEventPolicy(auditEventWriter, applicationProperties);
+
+        for (int i = 0; i < 6; i++) {
+            policy.write(event("AUTHENTICATION_SUCCESS", "user-" + i, NOW));
+        }
+
+        assertThat(written).extracting(PersistentAuditEvent::getPrincipal).containsExactly("user-0", "user-3");
+        assertThat(written).allMatch(event -> "3".equals(event.getData().get(AuditEventPolicy.SAMPLE_RATE)));
+    }
+
+    @Test
+    public void testEventsOfAPrincipalAreCollapsedByWindow() {
+        typePolicy(TypePolicy.Mode.COLLAPSE).setWindowSeconds(60);
+        AuditEventPolicy policy = new AuditEventPolicy(auditEventWriter, applicationProperties);
+
+        policy.write(event("AUTHENTICATION_SUCCESS", "user", NOW));
+        policy.write(event("AUTHENTICATION_SUCCESS", "user", NOW.plusSeconds(10)));
+        policy.write(event("AUTHENTICATION_SUCCESS", "other", NOW.plusSeconds(20)));
+        policy.write(event("AUTHENTICATION_SUCCESS", "user", NOW.plusSeconds(30)));
+        assertThat(written).isEmpty();
+
+        // The next window of the principal starts with a new event, and the previous one is written
+        policy.write(event("AUTHENTICATION_SUCCESS", "user", NOW.plusSeconds(70)));
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0).getAuditEventDate()).isEqualTo(NOW);
+        assertThat(written.get(0).getData()).containsEntry(AuditEventPolicy.COUNT, "3");
+
+        policy.flushWindowsEndedBy(NOW.plusSeconds(90));
+        assertThat(written).hasSize(2);
+        assertThat(written.get(1).getPrincipal()).isEqualTo("other");
+        assertThat(written.get(1).getData()).containsEntry(AuditEventPolicy.COUNT, "1");
+
+        policy.flush();
+        assertThat(written).hasSize(3);
+        assertThat(written.get(2).getAuditEventDate()).isEqualTo(NOW.plusSeconds(70));
+    }
+
+    @Test
+    public void testEventsAreWrittenWhenTooManyPrincipalsAreCollapsed() {
+        typePolicy(TypePolicy.Mode.COLLAPSE);
+        applicationProperties.getAuditPolicy().setMaxCollapsed(1);
+        AuditEventPolicy policy = new AuditEventPolicy(auditEventWriter, applicationProperties);
+
+        policy.write(event("AUTHENTICATION_SUCCESS", "user", NOW));
+        policy.write(event("AUTHENTICATION_SUCCESS", "other", NOW));
+
+        assertThat(written).extracting(PersistentAuditEvent::getPrincipal).containsExactly("other");
+        assertThat(written.get(0).getData()).doesNotContainKey(AuditEventPolicy.COUNT);
+    }
+
+    @Test
+    public void testOnlyDroppedTypesAreDropped() {
+        typePolicy(TypePolicy.Mode.SAMPLE);
+        AuditEventPolicy policy = new AuditEventPolicy(auditEventWriter, applicationProperties);
+
+        assertThat(policy.isDropped("AUTHORIZATION_FAILURE")).isTrue();
+        assertThat(policy.isDropped("AUTHENTICATION_SUCCESS")).isFalse();
+        assertThat(policy.isDropped("AUTHENTICATION_FAILURE")).isFalse();
+    }
+
+    @Test
+    public void testWrittenEventsAreWeightedByTheEventsTheyStandFor() {
+        Map<String, String> data = new HashMap<>();
+        assertThat(AuditEventPolicy.weightOf(data)).isEqualTo(1);
+
+        data.put(AuditEventPolicy.SAMPLE_RATE, "10");
+        assertThat(AuditEventPolicy.weightOf(data)).isEqualTo(10);
+
+        data.clear();
+        data.put(AuditEventPolicy.COUNT, "3");
+        assertThat(AuditEventPolicy.weightOf(data)).isEqualTo(3);
+
+        data.put(AuditEventPolicy.COUNT, "not-a-number");
+        assertThat(AuditEventPolicy.weightOf(data)).isEqualTo(1);
+        assertThat(AuditEventPolicy.weightOf(null)).isEqualTo(1);
+    }
+
+    private TypePolicy typePolicy(TypePolicy.Mode mode) {
+        TypePolicy policy = new TypePolicy();
+        policy.setMode(mode);
+        applicationProperties.getAuditPolicy().getTypes().put("AUTHENTICATION_SUCCESS", policy);
+        return policy;
+    }
+
+    private static PersistentAuditEvent event(String type, String principal, Instant date) {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setAuditEventType(type);
+        event.setPrincipal(principal);
+        event.setAuditEventDate(date);
+        return event;
+    }
+}
@@ -0,0 +1,157 @@
+package com.elened.inteduweb.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.domain.PersistentAuditEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Unit tests for {@link AuditEventWriter}.
+ */
+public class AuditEventWriterTest {
+    private final List<PersistentAuditEvent> saved = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private ApplicationProperties applicationProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        persistenceAuditEventRepository = mock(PersistenceAuditEventRepository.class);
+        when(persistenceAuditEventRepository.saveAll(any()))
+            .thenAnswer(
+                invocation -> {
+                    Iterable<PersistentAuditEvent> batch = invocation.getArgument(0);
+                    int size = 0;
+                    for (PersistentAuditEvent event : batch) {
+                        saved.add(event);
+                        size++;
+                    }
+                    batchSizes.add(size);
+                    return null;
+                }
+            );
+        transactionManager = mock(PlatformTransactionManager.class);
+        applicationProperties = new ApplicationProperties();
+        // Only flush on shutdown, unless a test says otherwise
+        applicationProperties.getAuditWriter().setBatchSize(1000);
+        applicationProperties.getAuditWriter().setFlushIntervalMillis(3600000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testEventsAreWrittenByBatchesAndFlushedOnShutdown() {
+        applicationProperties.getAuditWriter().setBatchSize(10);
+        AuditEventWriter writer = createWriter();
+        List<PersistentAuditEvent> events = events(25);
+
+        events.forEach(writer::write);
+        writer.stop();
+
+        assertThat(saved).containsExactlyElementsOf(events);
+        assertThat(batchSizes).allMatch(size -> size <= 10);
+        assertThat(writer.getQueueDepth()).isZero();
+        assertThat(meterRegistry.get("audit.writer.events").tag("result", "written").counter().count()).isEqualTo(25);
+    }
+
+    @Test
+    public void testOldestEventsAreDroppedWhenTheQueueIsFull() {
+        applicationProperties.getAuditWriter().setQueueCapacity(3);
+        applicationProperties.getAuditWriter().setOverflowPolicy(ApplicationProperties.AuditWriter.OverflowPolicy.DROP_OLDEST);
+        AuditEventWriter writer = createWriter();
+        List<PersistentAuditEvent> events = events(5);
+
+        events.forEach(writer::write);
+        assertThat(writer.getQueueDepth()).isEqualTo(3);
+        writer.stop();
+
+        assertThat(saved).containsExactlyElementsOf(events.subList(2, 5));
+        assertThat(meterRegistry.get("audit.writer.events").tag("result", "dropped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void testNewEventsAreSampledWhenTheQueueIsFull() {
+        applicationProperties.getAuditWriter().setQueueCapacity(2);
+        applicationProperties.getAuditWriter().setOverflowPolicy(ApplicationProperties.AuditWriter.OverflowPolicy.SAMPLE);
+        applicationProperties.getAuditWriter().setSampleRate(2);
+        AuditEventWriter writer = createWriter();
+        List<PersistentAuditEvent> events = events(4);
+
+        events.forEach(writer::write);
+        writer.stop();
+
+        // The third event is dropped, the fourth one takes the place of the first one
+        assertThat(saved).containsExactly(events.get(1), events.get(3));
+    }
+
+    @Test
+    public void testBlockedEventIsWrittenOnceTheQueueHasRoom() {
+        applicationProperties.getAuditWriter().setQueueCapacity(1);
+        applicationProperties.getAuditWriter().setOverflowPolicy(ApplicationProperties.AuditWriter.OverflowPolicy.BLOCK);
+        applicationProperties.getAuditWriter().setMaxBlockMillis(10000);
+        AuditEventWriter writer = createWriter();
+        List<PersistentAuditEvent> events = events(2);
+
+        events.forEach(writer::write);
+        writer.stop();
+
+        assertThat(saved).containsExactlyElementsOf(events);
+    }
+
+    @Test
+    public void testSynchronousEventIsWrittenInANewTransaction() {
+        applicationProperties.getAuditWriter().setAsync(false);
+        AuditEventWriter writer = createWriter();
+        PersistentAuditEvent event = events(1).get(0);
+
+        writer.write(event);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        verify(persistenceAuditEventRepository).save(event);
+        verify(transactionManager).commit(any());
+        assertThat(meterRegistry.get("audit.writer.events").tag("result", "written").counter().count()).isEqualTo(1);
+    }
+
+    private AuditEventWriter createWriter() {
+        AuditEventWriter writer = new AuditEventWriter(
+            persistenceAuditEventRepository,
+            transactionManager,
+            applicationProperties,
+            meterRegistry
+        );
+        writer.start();
+        return writer;
+    }
+
+    private static List<PersistentAuditEvent> events(int count) {
+        List<PersistentAuditEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PersistentAuditEvent event = new PersistentAuditEvent();
+            event.setPrincipal("user-" + i);
+            event.setAuditEventType("AUTHENTICATION_SUCCESS");
+            events.add(event);
+        }
+        return events;
+    }
+}
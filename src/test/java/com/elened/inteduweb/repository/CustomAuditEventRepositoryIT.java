@@ -1,11 +1,11 @@
 package com.elened.inteduweb.repository;
 
-import static com.elened.inteduweb.repository.CustomAuditEventRepository.EVENT_DATA_COLUMN_MAX_LENGTH;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.elened.inteduweb.InteduwebApp;
 import com.elened.inteduweb.config.Constants;
 import com.elened.inteduweb.config.audit.AuditEventConverter;
+import com.elened.inteduweb.config.audit.AuditEventRollups;
 import com.elened.inteduweb.domain.PersistentAuditEvent;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -35,11 +35,18 @@ public class CustomAuditEventRepositoryIT {
     @Autowired
     private AuditEventConverter auditEventConverter;
 
+    @Autowired
+    private AuditEventPolicy auditEventPolicy;
+
+    @Autowired
+    private AuditEventRollups auditEventRollups;
+
     private CustomAuditEventRepository customAuditEventRepository;
 
     @BeforeEach
     public void setup() {
-        customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter);
+        customAuditEventRepository =
+            new CustomAuditEventRepository(persistenceAuditEventRepository, auditEventConverter, auditEventPolicy, auditEventRollups);
         persistenceAuditEventRepository.deleteAll();
         Instant oneHourAgo = Instant.now().minusSeconds(3600);
 
@@ -80,10 +87,10 @@ public class CustomAuditEventRepositoryIT {
     }
 
     @Test
-    public void addAuditEventTruncateLargeData() {
+    public void addAuditEventKeepsLargeData() {
         Map<String, Object> data = new HashMap<>();
         StringBuilder largeData = new StringBuilder();
-        for (int i = 0; i < EVENT_DATA_COLUMN_MAX_LENGTH + 10; i++) {
+        for (int i = 0; i < 1000; i++) {
             largeData.append("a");
         }
         data.put("test-key", largeData);
@@ -95,9 +102,8 @@ public class CustomAuditEventRepositoryIT {
         assertThat(persistentAuditEvent.getPrincipal()).isEqualTo(event.getPrincipal());
         assertThat(persistentAuditEvent.getAuditEventType()).isEqualTo(event.getType());
         assertThat(persistentAuditEvent.getData()).containsKey("test-key");
-        String actualData = persistentAuditEvent.getData().get("test-key");
-        assertThat(actualData.length()).isEqualTo(EVENT_DATA_COLUMN_MAX_LENGTH);
-        assertThat(actualData).isSubstringOf(largeData);
+        // The data are a JSON object in the event row, their values are no longer limited to 255 characters
+        assertThat(persistentAuditEvent.getData().get("test-key")).isEqualTo(largeData.toString());
         assertThat(persistentAuditEvent.getAuditEventDate().truncatedTo(ChronoUnit.MILLIS))
             .isEqualTo(event.getTimestamp().truncatedTo(ChronoUnit.MILLIS));
     }
@@ -150,5 +156,8 @@ public class CustomAuditEventRepositoryIT {
         customAuditEventRepository.add(event);
         List<PersistentAuditEvent> persistentAuditEvents = persistenceAuditEventRepository.findAll();
         assertThat(persistentAuditEvents).hasSize(0);
+        // The dropped events are not counted either
+        assertThat(auditEventRollups.getRollups(AuditEventRollups.Granularity.DAY, 0))
+            .allSatisfy(rollup -> assertThat(rollup.getTypes()).doesNotContainKey("AUTHORIZATION_FAILURE"));
     }
 }
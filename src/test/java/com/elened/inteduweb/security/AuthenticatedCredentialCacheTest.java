@@ -0,0 +1,55 @@
+package com.elened.inteduweb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AuthenticatedCredentialCache}.
+ */
+public class AuthenticatedCredentialCacheTest {
+    private static final String LOGIN = "test-user";
+    private static final String PASSWORD = "test-password";
+    private static final String ENCODED_PASSWORD = "$2a$10$encoded";
+
+    private AuthenticatedCredentialCache credentialCache;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getCredentialCache().setEnabled(true);
+        credentialCache = new AuthenticatedCredentialCache(applicationProperties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testMatchesRememberedCredentials() {
+        assertThat(credentialCache.matches(LOGIN, PASSWORD, ENCODED_PASSWORD)).isFalse();
+
+        credentialCache.put(LOGIN, PASSWORD, ENCODED_PASSWORD);
+
+        assertThat(credentialCache.matches(LOGIN, PASSWORD, ENCODED_PASSWORD)).isTrue();
+        assertThat(credentialCache.matches(LOGIN, "wrong-password", ENCODED_PASSWORD)).isFalse();
+        assertThat(credentialCache.matches(LOGIN, PASSWORD, "$2a$10$changed")).isFalse();
+    }
+
+    @Test
+    public void testEvict() {
+        credentialCache.put(LOGIN, PASSWORD, ENCODED_PASSWORD);
+
+        credentialCache.evict(LOGIN);
+
+        assertThat(credentialCache.matches(LOGIN, PASSWORD, ENCODED_PASSWORD)).isFalse();
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        AuthenticatedCredentialCache disabledCache = new AuthenticatedCredentialCache(new ApplicationProperties(), new SimpleMeterRegistry());
+
+        disabledCache.put(LOGIN, PASSWORD, ENCODED_PASSWORD);
+
+        assertThat(disabledCache.matches(LOGIN, PASSWORD, ENCODED_PASSWORD)).isFalse();
+    }
+}
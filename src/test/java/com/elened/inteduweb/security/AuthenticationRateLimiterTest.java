@@ -0,0 +1,80 @@
+package com.elened.inteduweb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Test class for the {@link AuthenticationRateLimiter}.
+ */
+public class AuthenticationRateLimiterTest {
+    private static final String TRUSTED_PROXIES = "10\\.0\\.0\\.2|172\\.16\\.0\\.3";
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+    }
+
+    @Test
+    public void testForwardedForIsIgnoredFromClients() {
+        applicationProperties.getSecurity().getRateLimit().setTrustedProxies(TRUSTED_PROXIES);
+        AuthenticationRateLimiter rateLimiter = new AuthenticationRateLimiter(applicationProperties, new SimpleMeterRegistry());
+
+        assertThat(rateLimiter.resolveClientAddress(request("203.0.113.7", "198.51.100.1"))).isEqualTo("203.0.113.7");
+        assertThat(rateLimiter.resolveClientAddress(request("203.0.113.7", null))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    public void testForwardedForIsReadFromTrustedProxies() {
+        applicationProperties.getSecurity().getRateLimit().setTrustedProxies(TRUSTED_PROXIES);
+        AuthenticationRateLimiter rateLimiter = new AuthenticationRateLimiter(applicationProperties, new SimpleMeterRegistry());
+
+        assertThat(rateLimiter.resolveClientAddress(request("10.0.0.2", "198.51.100.1"))).isEqualTo("198.51.100.1");
+        // The first entries may be spoofed by the client, only the ones added by the trusted proxies are used
+        assertThat(rateLimiter.resolveClientAddress(request("10.0.0.2", "192.0.2.9, 198.51.100.1, 172.16.0.3"))).isEqualTo("198.51.100.1");
+        assertThat(rateLimiter.resolveClientAddress(request("10.0.0.2", null))).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    public void testForwardedForIsIgnoredWithoutTrustedProxies() {
+        // Not even from the private and loopback addresses, which the clients of an intranet have
+        AuthenticationRateLimiter rateLimiter = new AuthenticationRateLimiter(applicationProperties, new SimpleMeterRegistry());
+
+        assertThat(rateLimiter.resolveClientAddress(request("10.0.0.2", "198.51.100.1"))).isEqualTo("10.0.0.2");
+        assertThat(rateLimiter.resolveClientAddress(request("127.0.0.1", "198.51.100.1"))).isEqualTo("127.0.0.1");
+
+        applicationProperties.getSecurity().getRateLimit().setTrustedProxies("");
+        rateLimiter = new AuthenticationRateLimiter(applicationProperties, new SimpleMeterRegistry());
+
+        assertThat(rateLimiter.resolveClientAddress(request("10.0.0.2", "198.51.100.1"))).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    public void testClientsBehindAProxyHaveSeparateBuckets() {
+        applicationProperties.getSecurity().getRateLimit().setTrustedProxies(TRUSTED_PROXIES);
+        applicationProperties.getSecurity().getRateLimit().getAddress().setCapacity(1);
+        AuthenticationRateLimiter rateLimiter = new AuthenticationRateLimiter(applicationProperties, new SimpleMeterRegistry());
+
+        rateLimiter.check(request("10.0.0.2", "198.51.100.1"), null);
+        rateLimiter.check(request("10.0.0.2", "198.51.100.2"), null);
+
+        assertThatExceptionOfType(RateLimitExceededException.class)
+            .isThrownBy(() -> rateLimiter.check(request("10.0.0.2", "198.51.100.1"), null));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader(AuthenticationRateLimiter.FORWARDED_FOR_HEADER, forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,59 @@
+package com.elened.inteduweb.security;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.elened.inteduweb.InteduwebApp;
+import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link BoundedPasswordEncoder} behind the authentication filters.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(classes = InteduwebApp.class)
+public class BoundedPasswordEncoderIT {
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @Transactional
+    public void testHttpBasicIsUnavailableWhenHashingIsRejected() throws Exception {
+        User user = new User();
+        user.setLogin("bounded-password-encoder");
+        user.setEmail("bounded-password-encoder@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+        doThrow(new PasswordHashingRejectedException(7)).when(passwordEncoder).matches(any(), anyString());
+
+        mockMvc
+            .perform(get("/api/account").with(httpBasic("bounded-password-encoder", "test")))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+            .andExpect(header().string("Retry-After", "7"))
+            .andExpect(jsonPath("$.message").value("error.http.503"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.elened.inteduweb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for the {@link BoundedPasswordEncoder}.
+ */
+public class BoundedPasswordEncoderTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    public void tearDown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    public void testDelegatesToPasswordEncoder() {
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), new ApplicationProperties(), meterRegistry);
+
+        String encodedPassword = passwordEncoder.encode("password");
+
+        assertThat(passwordEncoder.matches("password", encodedPassword)).isTrue();
+        assertThat(passwordEncoder.matches("other-password", encodedPassword)).isFalse();
+    }
+
+    @Test
+    public void testRejectsWhenSaturated() throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getPasswordHashing().setConcurrency(1);
+        applicationProperties.getSecurity().getPasswordHashing().setMaxWaitMillis(100);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(started, release), applicationProperties, meterRegistry);
+
+        Thread blocked = new Thread(() -> passwordEncoder.encode("password"));
+        blocked.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatExceptionOfType(PasswordHashingRejectedException.class)
+            .isThrownBy(() -> passwordEncoder.encode("password"))
+            .satisfies(e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(1));
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.METER_PREFIX + ".rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        blocked.join();
+    }
+
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+
+        private final CountDownLatch release;
+
+        BlockingPasswordEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.elened.inteduweb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Test class for the {@link CalibratedBCryptPasswordEncoder}.
+ */
+public class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    public void testUpgradeEncodingWhenWorkFactorIsLower() {
+        CalibratedBCryptPasswordEncoder passwordEncoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertThat(passwordEncoder.upgradeEncoding(passwordEncoder.encode("password"))).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        // Another node may have calibrated a higher work factor, its hashes are kept
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    public void testMatchesHashesOfAnyWorkFactor() {
+        CalibratedBCryptPasswordEncoder passwordEncoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertThat(passwordEncoder.matches("password", new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+    }
+
+    @Test
+    public void testCalibrateStaysWithinBounds() {
+        assertThat(CalibratedBCryptPasswordEncoder.calibrate(0, 1_000_000, 4, 6)).isEqualTo(4);
+        assertThat(CalibratedBCryptPasswordEncoder.calibrate(Long.MAX_VALUE / 1_000_000_000L, 1_000_000, 4, 6)).isEqualTo(6);
+    }
+
+    @Test
+    public void testCalibrateDoublesTheLatencyPerRound() {
+        // 10 ms at a work factor of 10, 40 ms at 12, 80 ms at 13 which is over the target
+        assertThat(CalibratedBCryptPasswordEncoder.calibrate(50, 10_000_000, 10, 14)).isEqualTo(12);
+    }
+
+    @Test
+    public void testCreateUsesTheConfiguredWorkFactorWithoutTarget() {
+        ApplicationProperties.Security.PasswordHashing properties = new ApplicationProperties().getSecurity().getPasswordHashing();
+        properties.setStrength(5);
+        properties.setTargetLatencyMillis(0);
+
+        CalibratedBCryptPasswordEncoder passwordEncoder = CalibratedBCryptPasswordEncoder.create(properties);
+
+        assertThat(passwordEncoder.getStrength()).isEqualTo(5);
+        assertThat(passwordEncoder.getMeasuredLatencyMillis()).isNaN();
+    }
+}
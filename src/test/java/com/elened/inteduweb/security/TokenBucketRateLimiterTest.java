@@ -0,0 +1,41 @@
+package com.elened.inteduweb.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link TokenBucketRateLimiter}.
+ */
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    public void testAllowsBurstUpToCapacity() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(3, 1, 100);
+
+        assertThat(rateLimiter.tryAcquire("127.0.0.1")).isZero();
+        assertThat(rateLimiter.tryAcquire("127.0.0.1")).isZero();
+        assertThat(rateLimiter.tryAcquire("127.0.0.1")).isZero();
+        assertThat(rateLimiter.tryAcquire("127.0.0.1")).isPositive();
+    }
+
+    @Test
+    public void testKeysHaveSeparateBuckets() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1, 1, 100);
+
+        assertThat(rateLimiter.tryAcquire("user-one")).isZero();
+        assertThat(rateLimiter.tryAcquire("user-one")).isPositive();
+        assertThat(rateLimiter.tryAcquire("user-two")).isZero();
+    }
+
+    @Test
+    public void testNumberOfKeysIsBounded() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1, 1, 10);
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.tryAcquire("user-" + i);
+        }
+
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(10);
+    }
+}
@@ -1,13 +1,22 @@
 package com.elened.inteduweb.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
-
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.elened.inteduweb.config.ApplicationProperties;
 import com.elened.inteduweb.security.AuthoritiesConstants;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.security.Key;
 import java.util.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,17 +31,22 @@ public class TokenProviderTest {
     private static final long ONE_MINUTE = 60000;
 
     private Key key;
+    private MeterRegistry meterRegistry;
+    private TokenRevocationStore tokenRevocationStore;
     private TokenProvider tokenProvider;
 
     @BeforeEach
     public void setup() {
-        tokenProvider = new TokenProvider(new JHipsterProperties());
+        meterRegistry = new SimpleMeterRegistry();
+        tokenRevocationStore = mock(TokenRevocationStore.class);
+        tokenProvider = new TokenProvider(new JHipsterProperties(), new ApplicationProperties(), tokenRevocationStore, meterRegistry);
         key =
             Keys.hmacShaKeyFor(
                 Decoders.BASE64.decode("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8")
             );
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
+        ReflectionTestUtils.setField(tokenProvider, "jwtParser", Jwts.parserBuilder().setSigningKey(key).build());
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
     }
 
@@ -81,6 +95,47 @@ public class TokenProviderTest {
         assertThat(isTokenValid).isEqualTo(false);
     }
 
+    @Test
+    public void testResolveAuthenticationIsCached() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> first = tokenProvider.resolveAuthentication(token);
+        Optional<Authentication> second = tokenProvider.resolveAuthentication(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getName()).isEqualTo("anonymous");
+        assertThat(second).containsSame(first.get());
+        assertThat(meterRegistry.get(TokenAuthenticationCache.CACHE_METER_NAME).tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TokenAuthenticationCache.CACHE_METER_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testResolveAuthenticationReturnsEmptyWhenJWTisInvalid() {
+        assertThat(tokenProvider.resolveAuthentication(createTokenWithDifferentSignature())).isEmpty();
+        assertThat(tokenProvider.resolveAuthentication("")).isEmpty();
+    }
+
+    @Test
+    public void testRevokedTokenIsRejectedEvenWhenCached() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.resolveAuthentication(token)).isPresent();
+
+        when(tokenRevocationStore.isRevoked(anyString(), eq("anonymous"), any(Date.class))).thenReturn(true);
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isEmpty();
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+    }
+
+    @Test
+    public void testRevokeTokenUsesTokenId() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String tokenId = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getId();
+
+        tokenProvider.revokeToken(token);
+
+        verify(tokenRevocationStore).revokeToken(eq(tokenId), eq("anonymous"), any());
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
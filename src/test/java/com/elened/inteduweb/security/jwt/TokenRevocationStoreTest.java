@@ -0,0 +1,159 @@
+package com.elened.inteduweb.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.repository.RevokedTokenRepository;
+import com.elened.inteduweb.repository.UserTokenCutoffRepository;
+import com.elened.inteduweb.security.AuthoritiesConstants;
+import io.github.jhipster.config.JHipsterProperties;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.Key;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Test class for the {@link TokenRevocationStore}, with the tokens of a {@link TokenProvider}.
+ */
+public class TokenRevocationStoreTest {
+    private static final long ONE_MINUTE = 60000;
+
+    private Key key;
+
+    private TokenRevocationStore tokenRevocationStore;
+
+    private TokenProvider tokenProvider;
+
+    @BeforeEach
+    public void setup() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tokenRevocationStore =
+            new TokenRevocationStore(
+                mock(RevokedTokenRepository.class),
+                mock(UserTokenCutoffRepository.class),
+                new JHipsterProperties(),
+                new ApplicationProperties(),
+                meterRegistry
+            );
+        tokenProvider = new TokenProvider(new JHipsterProperties(), new ApplicationProperties(), tokenRevocationStore, meterRegistry);
+        key =
+            Keys.hmacShaKeyFor(
+                Decoders.BASE64.decode("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8")
+            );
+
+        ReflectionTestUtils.setField(tokenProvider, "key", key);
+        ReflectionTestUtils.setField(tokenProvider, "jwtParser", Jwts.parserBuilder().setSigningKey(key).build());
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
+    }
+
+    @Test
+    public void testTokensIssuedBeforeTheCutoffAreRevoked() {
+        // Issued before the issue date to the millisecond was added to the tokens
+        String token = createTokenWithoutMillis(Instant.now().minusSeconds(1), null);
+        assertThat(tokenProvider.resolveAuthentication(token)).isPresent();
+
+        tokenRevocationStore.revokeAllTokens("user");
+
+        assertThat(tokenRevocationStore.isRevoked(null, "user", Date.from(Instant.now().minusSeconds(1)))).isTrue();
+        assertThat(tokenRevocationStore.isRevoked(null, "user", null)).isTrue();
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+        // The token is cached, revocation is still checked
+        assertThat(tokenProvider.resolveAuthentication(token)).isEmpty();
+    }
+
+    @Test
+    public void testTokenIssuedRightAfterTheCutoffIsAccepted() {
+        tokenRevocationStore.revokeAllTokens("user");
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+        assertThat(tokenProvider.resolveAuthentication(token)).isPresent();
+    }
+
+    @Test
+    public void testTokenOfThePasswordChangeIsExempt() {
+        String kept = createTokenWithoutMillis(Instant.now().minusSeconds(1), "kept");
+        String other = createTokenWithoutMillis(Instant.now().minusSeconds(1), "other");
+
+        tokenProvider.revokeOtherTokens("user", kept);
+
+        assertThat(tokenProvider.validateToken(kept)).isTrue();
+        assertThat(tokenProvider.validateToken(other)).isFalse();
+    }
+
+    @Test
+    public void testRevocationsAreAppliedOnCommit() {
+        String token = createTokenWithoutMillis(Instant.now().minusSeconds(1), "token");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationStore.revokeToken("token", "user", Instant.now().plusSeconds(60));
+            tokenRevocationStore.revokeAllTokens("user");
+            assertThat(tokenProvider.validateToken(token)).isTrue();
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tokenRevocationStore.isRevoked("token", "other-user", new Date())).isTrue();
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+    }
+
+    @Test
+    public void testRolledBackRevocationsAreNotApplied() {
+        String token = createTokenWithoutMillis(Instant.now().minusSeconds(1), "token");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationStore.revokeToken("token", "user", Instant.now().plusSeconds(60));
+            tokenRevocationStore.revokeAllTokens("user");
+        } finally {
+            // The transaction is rolled back: the synchronizations are cleared without being told of a commit
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+    }
+
+    @Test
+    public void testTokensOfOtherUsersAreAccepted() {
+        tokenRevocationStore.revokeAllTokens("other-user");
+
+        assertThat(tokenRevocationStore.isRevoked(null, "user", Date.from(Instant.now().minusSeconds(1)))).isFalse();
+    }
+
+    private Authentication createAuthentication() {
+        return new UsernamePasswordAuthenticationToken(
+            "user",
+            "user",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+    }
+
+    private String createTokenWithoutMillis(Instant issuedAt, String tokenId) {
+        return Jwts
+            .builder()
+            .setId(tokenId)
+            .setSubject("user")
+            .setIssuedAt(Date.from(issuedAt))
+            .claim("auth", AuthoritiesConstants.USER)
+            .signWith(key, SignatureAlgorithm.HS512)
+            .setExpiration(new Date(issuedAt.toEpochMilli() + ONE_MINUTE))
+            .compact();
+    }
+}
@@ -3,11 +3,14 @@ package com.elened.inteduweb.service;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.elened.inteduweb.InteduwebApp;
+import com.elened.inteduweb.config.ApplicationProperties;
 import com.elened.inteduweb.domain.PersistentAuditEvent;
 import com.elened.inteduweb.repository.PersistenceAuditEventRepository;
 import io.github.jhipster.config.JHipsterProperties;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,12 @@ public class AuditEventServiceIT {
     @Autowired
     private JHipsterProperties jHipsterProperties;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private EntityManager em;
+
     private PersistentAuditEvent auditEventOld;
 
     private PersistentAuditEvent auditEventWithinRetention;
@@ -72,4 +81,40 @@ public class AuditEventServiceIT {
         assertThat(persistenceAuditEventRepository.findByPrincipal("test-user-retention")).isNotEmpty();
         assertThat(persistenceAuditEventRepository.findByPrincipal("test-user-new")).isNotEmpty();
     }
+
+    @Test
+    @Transactional
+    public void verifyOldAuditEventsAreDeletedByChunks() {
+        persistenceAuditEventRepository.deleteAll();
+        for (int i = 0; i < 5; i++) {
+            PersistentAuditEvent auditEvent = new PersistentAuditEvent();
+            auditEvent.setAuditEventDate(auditEventOld.getAuditEventDate().minusSeconds(i));
+            auditEvent.setPrincipal("test-user-old");
+            auditEvent.setAuditEventType("test-type");
+            auditEvent.getData().put("remoteAddress", "127.0.0." + i);
+            auditEvent.getData().put("sessionId", "session-" + i);
+            persistenceAuditEventRepository.save(auditEvent);
+        }
+        auditEventNew.getData().put("remoteAddress", "127.0.0.1");
+        persistenceAuditEventRepository.save(auditEventNew);
+        persistenceAuditEventRepository.flush();
+
+        ApplicationProperties.AuditRetention auditRetention = applicationProperties.getAuditRetention();
+        int chunkSize = auditRetention.getChunkSize();
+        long pauseMillis = auditRetention.getPauseMillis();
+        auditRetention.setChunkSize(2);
+        auditRetention.setPauseMillis(0);
+        try {
+            auditEventService.removeOldAuditEvents();
+        } finally {
+            auditRetention.setChunkSize(chunkSize);
+            auditRetention.setPauseMillis(pauseMillis);
+        }
+        em.clear();
+
+        assertThat(persistenceAuditEventRepository.findByPrincipal("test-user-old")).isEmpty();
+        List<PersistentAuditEvent> remaining = persistenceAuditEventRepository.findByPrincipal("test-user-new");
+        assertThat(remaining).hasSize(1);
+        assertThat(remaining.get(0).getData()).containsEntry("remoteAddress", "127.0.0.1");
+    }
 }
@@ -0,0 +1,58 @@
+package com.elened.inteduweb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.elened.inteduweb.domain.Authority;
+import com.elened.inteduweb.repository.AuthorityRepository;
+import com.elened.inteduweb.security.AuthoritiesConstants;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AuthorityRegistry}.
+ */
+public class AuthorityRegistryTest {
+    private AuthorityRepository authorityRepository;
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    public void setup() {
+        authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll())
+            .thenReturn(Arrays.asList(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN)));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+    }
+
+    @Test
+    public void testAuthoritiesAreLoadedOnce() {
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.findByName(AuthoritiesConstants.USER)).isPresent();
+        assertThat(authorityRegistry.findByName("ROLE_UNKNOWN")).isEmpty();
+
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void testRefreshReplacesTheSnapshot() {
+        assertThat(authorityRegistry.getNames()).hasSize(2);
+        when(authorityRepository.findAll()).thenReturn(Collections.singletonList(authority(AuthoritiesConstants.ADMIN)));
+
+        authorityRegistry.refresh();
+
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.ADMIN);
+        assertThat(authorityRegistry.findByName(AuthoritiesConstants.USER)).isEmpty();
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
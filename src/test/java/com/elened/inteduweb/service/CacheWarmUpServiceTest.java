@@ -0,0 +1,72 @@
+package com.elened.inteduweb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.elened.inteduweb.config.ApplicationProperties;
+import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Unit tests for {@link CacheWarmUpService}.
+ */
+public class CacheWarmUpServiceTest {
+    private UserRepository userRepository;
+
+    private AuthorityRegistry authorityRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        authorityRegistry = mock(AuthorityRegistry.class);
+        applicationProperties = new ApplicationProperties();
+    }
+
+    @Test
+    public void testWarmUpLoadsUsersAndAuthorities() {
+        when(userRepository.findAllByActivatedIsTrue(any(Pageable.class))).thenReturn(Arrays.asList(user("john"), user("jane")));
+        CacheWarmUpService service = createService();
+
+        service.warmUp();
+
+        verify(authorityRegistry).refresh();
+        verify(userRepository).findOneWithAuthoritiesByLogin("john");
+        verify(userRepository).findOneWithAuthoritiesByEmailIgnoreCase("jane@localhost");
+        assertThat(service.isFinished()).isTrue();
+        assertThat(service.getProgress()).isEqualTo(1);
+    }
+
+    @Test
+    public void testWarmUpStopsWhenTimeBudgetIsExceeded() {
+        applicationProperties.getCache().getWarmUp().setTimeBudgetSeconds(0);
+        when(userRepository.findAllByActivatedIsTrue(any(Pageable.class))).thenReturn(Arrays.asList(user("john")));
+        CacheWarmUpService service = createService();
+
+        service.warmUp();
+
+        verify(userRepository, never()).findOneWithAuthoritiesByLogin("john");
+        assertThat(service.isFinished()).isTrue();
+    }
+
+    private CacheWarmUpService createService() {
+        return new CacheWarmUpService(userRepository, authorityRegistry, applicationProperties, Runnable::run, new SimpleMeterRegistry());
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@localhost");
+        return user;
+    }
+}
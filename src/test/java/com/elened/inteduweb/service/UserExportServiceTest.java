@@ -0,0 +1,46 @@
+package com.elened.inteduweb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Iterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the CSV fields written by {@link UserExportService}.
+ */
+public class UserExportServiceTest {
+
+    @Test
+    public void testFieldsAreQuotedWhenNeeded() {
+        assertThat(UserExportService.csvField("john")).isEqualTo("john");
+        assertThat(UserExportService.csvField("Doe, Jane")).isEqualTo("\"Doe, Jane\"");
+        assertThat(UserExportService.csvField("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(UserExportService.csvField("")).isEmpty();
+    }
+
+    @Test
+    public void testFormulasAreEscaped() {
+        assertThat(UserExportService.csvField("=HYPERLINK(\"http://example.com\")"))
+            .isEqualTo("\"'=HYPERLINK(\"\"http://example.com\"\")\"");
+        assertThat(UserExportService.csvField("+1")).isEqualTo("'+1");
+        assertThat(UserExportService.csvField("-1")).isEqualTo("'-1");
+        assertThat(UserExportService.csvField("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+        assertThat(UserExportService.csvField("\tcmd")).isEqualTo("'\tcmd");
+        assertThat(UserExportService.csvField("\rcmd")).isEqualTo("\"'\rcmd\"");
+        assertThat(UserExportService.csvField("john+test@example.com")).isEqualTo("john+test@example.com");
+    }
+
+    @Test
+    public void testEscapedFormulasAreImportedAsExported() {
+        String csv = "login,firstName,lastName\n" + "=john," + UserExportService.csvField("=1+1") + ",'O'Brien\n";
+
+        Iterator<UserImportRows.Row> rows = UserImportRows.csv(new BufferedReader(new StringReader(csv)));
+
+        UserImportRows.Row row = rows.next();
+        assertThat(row.getUser().getLogin()).isEqualTo("=john");
+        assertThat(row.getUser().getFirstName()).isEqualTo("=1+1");
+        assertThat(row.getUser().getLastName()).isEqualTo("'O'Brien");
+    }
+}
@@ -1,6 +1,7 @@
 package com.elened.inteduweb.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -8,17 +9,26 @@ import static org.mockito.Mockito.when;
 
 import com.elened.inteduweb.InteduwebApp;
 import com.elened.inteduweb.config.Constants;
+import com.elened.inteduweb.domain.Authority;
 import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.AuthorityRepository;
 import com.elened.inteduweb.repository.UserRepository;
 import com.elened.inteduweb.repository.search.UserSearchRepository;
+import com.elened.inteduweb.security.AuthoritiesConstants;
 import com.elened.inteduweb.service.dto.UserDTO;
 import io.github.jhipster.security.RandomUtil;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.EntityManager;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -28,6 +38,7 @@ import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -51,9 +62,15 @@ public class UserServiceIT {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private EntityManager entityManager;
+
     /**
      * This repository is mocked in the com.elened.inteduweb.repository.search test package.
      *
@@ -171,14 +188,39 @@ public class UserServiceIT {
         dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
         userRepository.saveAndFlush(user);
         Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
-        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isNotEmpty();
+        assertThat(userRepository.countByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo)).isPositive();
         userService.removeNotActivatedUsers();
-        users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isEmpty();
+        assertThat(userRepository.countByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo)).isZero();
 
         // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, times(1)).delete(user);
+        verify(mockUserSearchRepository, times(1)).deleteAllByIdInBulk(Collections.singletonList(dbUser.getId()));
+    }
+
+    @Test
+    @Transactional
+    public void assertThatUsersActivatedDuringThePurgeAreNotDeleted() {
+        user.setActivated(false);
+        user.setActivationKey(RandomStringUtils.random(20));
+        user.setAuthorities(Collections.singleton(authorityRepository.findById(AuthoritiesConstants.USER).get()));
+        User notActivatedUser = userRepository.saveAndFlush(user);
+        User activatedUser = new User();
+        activatedUser.setLogin("johndoe-activated");
+        activatedUser.setPassword(RandomStringUtils.random(60));
+        activatedUser.setActivated(true);
+        activatedUser.setEmail("johndoe-activated@localhost");
+        activatedUser.setAuthorities(Collections.singleton(authorityRepository.findById(AuthoritiesConstants.USER).get()));
+        userRepository.saveAndFlush(activatedUser);
+
+        // The id of the activated user was read before its activation
+        List<Long> deletedIds = userRepository.deleteAllNotActivatedByIdInBatch(
+            Arrays.asList(notActivatedUser.getId(), activatedUser.getId())
+        );
+
+        assertThat(deletedIds).containsExactly(notActivatedUser.getId());
+        assertThat(userRepository.findById(notActivatedUser.getId())).isNotPresent();
+        assertThat(userRepository.findOneWithAuthoritiesByLogin("johndoe-activated").get().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
     }
 
     @Test
@@ -191,14 +233,13 @@ public class UserServiceIT {
         dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
         userRepository.saveAndFlush(user);
         Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
-        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isEmpty();
+        assertThat(userRepository.countByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo)).isZero();
         userService.removeNotActivatedUsers();
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
 
         // Verify Elasticsearch mock
-        verify(mockUserSearchRepository, never()).delete(user);
+        verify(mockUserSearchRepository, never()).deleteAllByIdInBulk(any());
     }
 
     @Test
@@ -212,4 +253,45 @@ public class UserServiceIT {
         final Page<UserDTO> allManagedUsers = userService.getAllManagedUsers(pageable);
         assertThat(allManagedUsers.getContent().stream().noneMatch(user -> Constants.ANONYMOUS_USER.equals(user.getLogin()))).isTrue();
     }
+
+    @Test
+    @Transactional
+    public void assertThatManagedUsersAreListedWithTwoQueries() {
+        Authority authority = authorityRepository.findById(AuthoritiesConstants.USER).get();
+        for (int i = 0; i < 30; i++) {
+            User other = new User();
+            other.setLogin(DEFAULT_LOGIN + i);
+            other.setPassword(RandomStringUtils.random(60));
+            other.setActivated(true);
+            other.setAuthorities(Collections.singleton(authority));
+            userRepository.save(other);
+        }
+        userRepository.flush();
+        entityManager.clear();
+        PageRequest pageable = PageRequest.of(0, 100, Sort.by("id"));
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            List<UserDTO> entities = userRepository
+                .findAllByLoginNot(pageable, Constants.ANONYMOUS_USER)
+                .map(UserDTO::new)
+                .getContent();
+            long entityQueries = statistics.getPrepareStatementCount();
+            entityManager.clear();
+
+            statistics.clear();
+            List<UserDTO> projections = userService.getAllManagedUsers(pageable).getContent();
+            long projectionQueries = statistics.getPrepareStatementCount();
+
+            // The page, its count, and the authorities of its users, instead of one query per batch of users
+            assertThat(projectionQueries).isEqualTo(3);
+            assertThat(entityQueries).isGreaterThan(projectionQueries);
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+            assertThat(projections).usingElementComparatorOnFields("login", "authorities").containsExactlyElementsOf(entities);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
 }
@@ -1,9 +1,14 @@
 package com.elened.inteduweb.service.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 import com.elened.inteduweb.domain.User;
+import com.elened.inteduweb.repository.AuthorityRepository;
+import com.elened.inteduweb.repository.UserSummary;
+import com.elened.inteduweb.service.AuthorityRegistry;
 import com.elened.inteduweb.service.dto.UserDTO;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -25,7 +30,7 @@ public class UserMapperTest {
 
     @BeforeEach
     public void init() {
-        userMapper = new UserMapper();
+        userMapper = new UserMapper(new AuthorityRegistry(mock(AuthorityRepository.class)));
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.random(60));
@@ -126,6 +131,35 @@ public class UserMapperTest {
         assertThat(userMapper.userDTOToUser(null)).isNull();
     }
 
+    @Test
+    public void userSummaryToUserDTOShouldMapWithEmptyAuthorities() {
+        Instant createdDate = Instant.now();
+        UserSummary summary = new UserSummary(
+            DEFAULT_ID,
+            DEFAULT_LOGIN,
+            "john",
+            "doe",
+            "johndoe@localhost",
+            "image_url",
+            true,
+            "en",
+            "system",
+            createdDate,
+            null,
+            null
+        );
+
+        UserDTO userDTO = userMapper.userSummaryToUserDTO(summary);
+
+        assertThat(userDTO.getId()).isEqualTo(DEFAULT_ID);
+        assertThat(userDTO.getLogin()).isEqualTo(DEFAULT_LOGIN);
+        assertThat(userDTO.getEmail()).isEqualTo("johndoe@localhost");
+        assertThat(userDTO.isActivated()).isTrue();
+        assertThat(userDTO.getCreatedDate()).isEqualTo(createdDate);
+        assertThat(userDTO.getLastModifiedDate()).isNull();
+        assertThat(userDTO.getAuthorities()).isNotNull().isEmpty();
+    }
+
     @Test
     public void testUserFromId() {
         assertThat(userMapper.userFromId(DEFAULT_ID).getId()).isEqualTo(DEFAULT_ID);
@@ -1,7 +1,9 @@
 package com.elened.inteduweb.web.rest;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -9,19 +11,33 @@ import com.elened.inteduweb.InteduwebApp;
 import com.elened.inteduweb.domain.PersistentAuditEvent;
 import com.elened.inteduweb.repository.PersistenceAuditEventRepository;
 import com.elened.inteduweb.security.AuthoritiesConstants;
+import com.elened.inteduweb.service.AuditEventExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
 
 /**
  * Integration tests for the {@link AuditResource} REST controller.
@@ -39,6 +55,12 @@ public class AuditResourceIT {
     @Autowired
     private PersistenceAuditEventRepository auditEventRepository;
 
+    @Autowired
+    private AuditEventExportService auditEventExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private PersistentAuditEvent auditEvent;
 
     @Autowired
@@ -113,6 +135,157 @@ public class AuditResourceIT {
             .andExpect(header().string("X-Total-Count", "0"));
     }
 
+    @Test
+    public void getAuditsWithCursor() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+        for (int i = 1; i <= 2; i++) {
+            PersistentAuditEvent newerAuditEvent = new PersistentAuditEvent();
+            newerAuditEvent.setAuditEventType(SAMPLE_TYPE);
+            newerAuditEvent.setPrincipal(SAMPLE_PRINCIPAL + i);
+            newerAuditEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusSeconds(i));
+            auditEventRepository.save(newerAuditEvent);
+        }
+
+        MvcResult firstPage = restAuditMockMvc
+            .perform(get("/management/audits?cursor=&size=2&type=" + SAMPLE_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].principal").value(contains(SAMPLE_PRINCIPAL + 2, SAMPLE_PRINCIPAL + 1)))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andReturn();
+        assertThat(link(firstPage, "prev")).isNull();
+
+        MvcResult secondPage = restAuditMockMvc
+            .perform(get(URI.create(link(firstPage, "next"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].principal").value(contains(SAMPLE_PRINCIPAL)))
+            .andReturn();
+        assertThat(link(secondPage, "next")).isNull();
+
+        restAuditMockMvc
+            .perform(get(URI.create(link(secondPage, "prev"))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].principal").value(contains(SAMPLE_PRINCIPAL + 2, SAMPLE_PRINCIPAL + 1)));
+    }
+
+    @Test
+    public void getAuditsWithCursorOfAnotherType() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+
+        restAuditMockMvc
+            .perform(get("/management/audits?cursor=&type=OTHER_TYPE"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    public void getAuditsWithInvalidCursorOrSort() throws Exception {
+        restAuditMockMvc.perform(get("/management/audits?cursor=bm9wZQ")).andExpect(status().isBadRequest());
+        restAuditMockMvc.perform(get("/management/audits?cursor=&sort=principal,asc")).andExpect(status().isBadRequest());
+    }
+
+    private static String link(MvcResult result, String relType) {
+        Matcher matcher = Pattern.compile("<([^>]*)>; rel=\"" + relType + "\"").matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @Test
+    public void exportAuditsOfPrincipal() throws Exception {
+        // Initialize the database
+        auditEvent.getData().put("remoteAddress", "127.0.0.1");
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent otherAuditEvent = new PersistentAuditEvent();
+        otherAuditEvent.setAuditEventType(SAMPLE_TYPE);
+        otherAuditEvent.setPrincipal("OTHER_PRINCIPAL");
+        otherAuditEvent.setAuditEventDate(SAMPLE_TIMESTAMP);
+        auditEventRepository.saveAndFlush(otherAuditEvent);
+
+        // The export streams from another thread through the REST API, which would not see the uncommitted events
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long exported = auditEventExportService.exportNdjson(
+            outputStream,
+            SAMPLE_PRINCIPAL,
+            SAMPLE_TYPE,
+            SAMPLE_TIMESTAMP.minusSeconds(SECONDS_PER_DAY),
+            SAMPLE_TIMESTAMP.plusSeconds(SECONDS_PER_DAY)
+        );
+
+        assertThat(exported).isEqualTo(1);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(lines).hasSize(1);
+        JsonNode event = objectMapper.readTree(lines[0]);
+        assertThat(event.get("id").asLong()).isEqualTo(auditEvent.getId());
+        assertThat(event.get("principal").asText()).isEqualTo(SAMPLE_PRINCIPAL);
+        assertThat(event.get("timestamp").asText()).isEqualTo(SAMPLE_TIMESTAMP.toString());
+        assertThat(event.get("data").get("remoteAddress").asText()).isEqualTo("127.0.0.1");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportAuditsAsGzippedNdjson() throws Exception {
+        // The export streams from another thread, so the events are committed and deleted by the test
+        auditEvent.getData().put("remoteAddress", "127.0.0.1");
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent laterAuditEvent = new PersistentAuditEvent();
+        laterAuditEvent.setAuditEventType(SAMPLE_TYPE);
+        laterAuditEvent.setPrincipal("OTHER_PRINCIPAL");
+        laterAuditEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusSeconds(1));
+        auditEventRepository.save(laterAuditEvent);
+        PersistentAuditEvent otherTypeAuditEvent = new PersistentAuditEvent();
+        otherTypeAuditEvent.setAuditEventType("OTHER_TYPE");
+        otherTypeAuditEvent.setPrincipal(SAMPLE_PRINCIPAL);
+        otherTypeAuditEvent.setAuditEventDate(SAMPLE_TIMESTAMP);
+        auditEventRepository.save(otherTypeAuditEvent);
+
+        try {
+            MvcResult result = restAuditMockMvc
+                .perform(get("/management/audits/export?type=" + SAMPLE_TYPE).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            result.getAsyncResult();
+
+            byte[] gzipped = restAuditMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+            String ndjson;
+            try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                ndjson = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+            }
+            String[] lines = ndjson.split("\n");
+            assertThat(lines).hasSize(2);
+            JsonNode event = objectMapper.readTree(lines[0]);
+            assertThat(event.get("id").asLong()).isEqualTo(auditEvent.getId());
+            assertThat(event.get("principal").asText()).isEqualTo(SAMPLE_PRINCIPAL);
+            assertThat(event.get("type").asText()).isEqualTo(SAMPLE_TYPE);
+            assertThat(event.get("timestamp").asText()).isEqualTo(SAMPLE_TIMESTAMP.toString());
+            assertThat(event.get("data").get("remoteAddress").asText()).isEqualTo("127.0.0.1");
+            JsonNode laterEvent = objectMapper.readTree(lines[1]);
+            assertThat(laterEvent.get("id").asLong()).isEqualTo(laterAuditEvent.getId());
+            assertThat(laterEvent.get("principal").asText()).isEqualTo("OTHER_PRINCIPAL");
+            assertThat(laterEvent.get("type").asText()).isEqualTo(SAMPLE_TYPE);
+        } finally {
+            auditEventRepository.deleteAll();
+        }
+    }
+
+    @Test
+    public void getAuditRollups() throws Exception {
+        restAuditMockMvc
+            .perform(get("/management/audits/rollups?granularity=hour&top=5"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(48))
+            .andExpect(jsonPath("$.[0].start").exists());
+        restAuditMockMvc.perform(get("/management/audits/rollups?granularity=week")).andExpect(status().isBadRequest());
+    }
+
     @Test
     public void getNonExistingAudit() throws Exception {
         // Get the audit
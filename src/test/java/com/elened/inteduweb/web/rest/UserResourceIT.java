@@ -1,12 +1,14 @@
 package com.elened.inteduweb.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.elened.inteduweb.InteduwebApp;
+import com.elened.inteduweb.config.Constants;
 import com.elened.inteduweb.domain.Authority;
 import com.elened.inteduweb.domain.User;
 import com.elened.inteduweb.repository.UserRepository;
@@ -15,9 +17,16 @@ import com.elened.inteduweb.security.AuthoritiesConstants;
 import com.elened.inteduweb.service.dto.UserDTO;
 import com.elened.inteduweb.service.mapper.UserMapper;
 import com.elened.inteduweb.web.rest.vm.ManagedUserVM;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 import javax.persistence.EntityManager;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,10 +35,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
 
 /**
  * Integration tests for the {@link UserResource} REST controller.
@@ -81,6 +93,9 @@ public class UserResourceIT {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private MockMvc restUserMockMvc;
 
@@ -236,6 +251,103 @@ public class UserResourceIT {
         assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeCreate));
     }
 
+    @Test
+    @Transactional
+    public void importUsersFromCsv() throws Exception {
+        String csv =
+            "login,email,firstName,authorities\n" +
+            "bulk-1,bulk-1@localhost,\"Doe, Jane\",ROLE_USER\n" +
+            "admin,bulk-2@localhost,,\n" +
+            "bulk-3,not-an-email,,\n" +
+            "bulk-1,bulk-4@localhost,,\n" +
+            "bulk-5,bulk-5@localhost,,ROLE_UNKNOWN\n";
+
+        restUserMockMvc
+            .perform(post("/api/users/import?sendEmails=false").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.failed").value(4))
+            .andExpect(jsonPath("$.errors.[*].line").value(contains(3, 4, 5, 6)))
+            .andExpect(jsonPath("$.errors.[*].login").value(contains("admin", "bulk-3", "bulk-1", "bulk-5")));
+
+        User imported = userRepository.findOneWithAuthoritiesByLogin("bulk-1").get();
+        assertThat(imported.getFirstName()).isEqualTo("Doe, Jane");
+        assertThat(imported.getEmail()).isEqualTo("bulk-1@localhost");
+        assertThat(imported.getActivated()).isTrue();
+        assertThat(imported.getResetKey()).isNotNull();
+        assertThat(imported.getAuthorities()).extracting("name").containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    @Transactional
+    public void importUsersFromNdjson() throws Exception {
+        String ndjson = "{\"login\":\"bulk-1\",\"email\":\"bulk-1@localhost\"}\n" + "\n" + "{\"login\":\n";
+
+        restUserMockMvc
+            .perform(post("/api/users/import?sendEmails=false").contentType("application/x-ndjson").content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.errors.[0].line").value(3));
+
+        assertThat(userRepository.findOneByLogin("bulk-1")).isPresent();
+    }
+
+    @Test
+    @Transactional
+    public void importUsersWithUnknownColumn() throws Exception {
+        restUserMockMvc
+            .perform(post("/api/users/import").contentType("text/csv").content("login,password\nbulk-1,secret\n"))
+            .andExpect(status().isBadRequest());
+
+        assertThat(userRepository.findOneByLogin("bulk-1")).isNotPresent();
+    }
+
+    @Test
+    public void exportUsersAsNdjson() throws Exception {
+        MvcResult result = restUserMockMvc.perform(get("/api/users/export")).andExpect(request().asyncStarted()).andReturn();
+        result.getAsyncResult();
+
+        String ndjson = restUserMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        List<UserDTO> users = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            users.add(objectMapper.readValue(line, UserDTO.class));
+        }
+        assertThat(users).extracting(UserDTO::getLogin).contains("admin", "user").doesNotContain("anonymoususer");
+        assertThat(users)
+            .filteredOn(user -> "admin".equals(user.getLogin()))
+            .flatExtracting(UserDTO::getAuthorities)
+            .containsOnly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+    }
+
+    @Test
+    public void exportUsersAsGzippedCsv() throws Exception {
+        MvcResult result = restUserMockMvc
+            .perform(get("/api/users/export?format=csv").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult();
+
+        byte[] gzipped = restUserMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        String csv;
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            csv = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+        }
+        assertThat(csv).startsWith("id,login,firstName,lastName,email,imageUrl,activated,langKey,").contains(",admin,");
+    }
+
     @Test
     @Transactional
     public void getAllUsers() throws Exception {
@@ -269,6 +381,104 @@ public class UserResourceIT {
         restUserMockMvc.perform(get("/api/users?sort=id,desc").accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
     }
 
+    @Test
+    @Transactional
+    public void getAllUsersWithCursor() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        MvcResult firstPage = restUserMockMvc
+            .perform(get("/api/users?cursor=&size=1&sort=login,asc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].login").value(contains("admin")))
+            .andExpect(header().exists("X-Total-Count"))
+            .andReturn();
+        assertThat(link(firstPage, "prev")).isNull();
+
+        MvcResult secondPage = restUserMockMvc
+            .perform(get(URI.create(link(firstPage, "next"))).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].login").value(contains(DEFAULT_LOGIN)))
+            .andReturn();
+
+        restUserMockMvc
+            .perform(get(URI.create(link(secondPage, "prev"))).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].login").value(contains("admin")));
+    }
+
+    @Test
+    @Transactional
+    public void getAllUsersWithCursorSortedByNullableCreatedDate() throws Exception {
+        // Initialize the database: the users loaded by Liquibase have no creation date
+        userRepository.saveAndFlush(user);
+        List<String> logins = new ArrayList<>();
+        userRepository.findAll().forEach(existing -> logins.add(existing.getLogin()));
+        logins.remove(Constants.ANONYMOUS_USER);
+        assertThat(userRepository.findOneByLogin("admin").get().getCreatedDate()).isNull();
+
+        for (String direction : Arrays.asList("asc", "desc")) {
+            List<String> forward = new ArrayList<>();
+            MvcResult page = restUserMockMvc
+                .perform(get("/api/users?cursor=&size=1&sort=createdDate," + direction).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+            forward.add(loginOf(page));
+            while (link(page, "next") != null) {
+                page = restUserMockMvc.perform(get(URI.create(link(page, "next"))).accept(MediaType.APPLICATION_JSON)).andReturn();
+                forward.add(loginOf(page));
+            }
+            List<String> backward = new ArrayList<>();
+            while (link(page, "prev") != null) {
+                page = restUserMockMvc.perform(get(URI.create(link(page, "prev"))).accept(MediaType.APPLICATION_JSON)).andReturn();
+                backward.add(0, loginOf(page));
+            }
+
+            assertThat(forward).containsExactlyInAnyOrderElementsOf(logins);
+            assertThat(backward).isEqualTo(forward.subList(0, forward.size() - 1));
+            // Users without creation date come first in ascending order, and last in descending order
+            assertThat(forward.indexOf(DEFAULT_LOGIN)).isEqualTo("asc".equals(direction) ? forward.size() - 1 : 0);
+        }
+    }
+
+    @Test
+    @Transactional
+    public void getAllUsersWithoutCount() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        restUserMockMvc
+            .perform(get("/api/users?count=none&sort=id,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)));
+        restUserMockMvc
+            .perform(get("/api/users?count=estimate&sort=id,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Total-Count"));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithInvalidCursorOrCount() throws Exception {
+        restUserMockMvc.perform(get("/api/users?cursor=bm9wZQ").accept(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+        restUserMockMvc
+            .perform(get("/api/users?cursor=&sort=email,asc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+        restUserMockMvc.perform(get("/api/users?count=sometimes").accept(MediaType.APPLICATION_JSON)).andExpect(status().isBadRequest());
+    }
+
+    private String loginOf(MvcResult result) throws Exception {
+        UserDTO[] users = objectMapper.readValue(result.getResponse().getContentAsString(), UserDTO[].class);
+        assertThat(users).hasSize(1);
+        return users[0].getLogin();
+    }
+
+    private static String link(MvcResult result, String relType) {
+        Matcher matcher = Pattern.compile("<([^>]*)>; rel=\"" + relType + "\"").matcher(result.getResponse().getHeader(HttpHeaders.LINK));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
     @Test
     @Transactional
     public void getUser() throws Exception {
@@ -503,6 +713,22 @@ public class UserResourceIT {
             .andExpect(jsonPath("$").value(hasItems(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)));
     }
 
+    @Test
+    @Transactional
+    public void getAllAuthoritiesNotModified() throws Exception {
+        String eTag = restUserMockMvc
+            .perform(get("/api/users/authorities").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, private"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restUserMockMvc
+            .perform(get("/api/users/authorities").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+    }
+
     @Test
     public void testUserEquals() throws Exception {
         TestUtil.equalsVerifier(User.class);
@@ -3,6 +3,7 @@ package com.elened.inteduweb.web.rest.errors;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -74,6 +75,26 @@ public class ExceptionTranslatorIT {
             .andExpect(jsonPath("$.detail").value("test access denied!"));
     }
 
+    @Test
+    public void testPasswordHashingRejected() throws Exception {
+        mockMvc
+            .perform(get("/api/exception-translator-test/password-hashing-rejected"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath("$.message").value("error.http.503"));
+    }
+
+    @Test
+    public void testRateLimitExceeded() throws Exception {
+        mockMvc
+            .perform(get("/api/exception-translator-test/rate-limit-exceeded"))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+            .andExpect(header().string("Retry-After", "30"))
+            .andExpect(jsonPath("$.message").value("error.http.429"));
+    }
+
     @Test
     public void testUnauthorized() throws Exception {
         mockMvc
@@ -1,5 +1,7 @@
 package com.elened.inteduweb.web.rest.errors;
 
+import com.elened.inteduweb.security.PasswordHashingRejectedException;
+import com.elened.inteduweb.security.RateLimitExceededException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
@@ -36,6 +38,16 @@ public class ExceptionTranslatorTestController {
         throw new BadCredentialsException("test authentication failed!");
     }
 
+    @GetMapping("/password-hashing-rejected")
+    public void passwordHashingRejected() {
+        throw new PasswordHashingRejectedException(1);
+    }
+
+    @GetMapping("/rate-limit-exceeded")
+    public void rateLimitExceeded() {
+        throw new RateLimitExceededException(30);
+    }
+
     @GetMapping("/response-status")
     public void exceptionWithResponseStatus() {
         throw new TestResponseStatusException();
@@ -32,7 +32,7 @@ describe('Administration reducer tests', () => {
     expect(state).toMatchObject({
       loading: false,
       errorMessage: null,
-      totalItems: 0,
+      auditCursors: { next: null, prev: null },
     });
     expect(isEmpty(state.logs.loggers));
     expect(isEmpty(state.threadDump));
@@ -173,14 +173,18 @@ describe('Administration reducer tests', () => {
     });
 
     it('should update state according to a successful fetch audits request', () => {
-      const headers = { ['x-total-count']: 1 };
+      const headers = {
+        link:
+          '<http://localhost/management/audits?cursor=bmV4dA&size=20>; rel="next",' +
+          '<http://localhost/management/audits?cursor=&size=20>; rel="first"',
+      };
       const payload = { data: [{ id: 1, userLogin: username }], headers };
       const toTest = administration(undefined, { type: SUCCESS(ACTION_TYPES.FETCH_AUDITS), payload });
 
       expect(toTest).toMatchObject({
         loading: false,
         audits: payload.data,
-        totalItems: headers['x-total-count'],
+        auditCursors: { next: 'bmV4dA', prev: null },
       });
     });
   });
@@ -285,7 +289,7 @@ describe('Administration reducer tests', () => {
       ];
       await store.dispatch(getEnv()).then(() => expect(store.getActions()).toEqual(expectedActions));
     });
-    it('dispatches FETCH_AUDITS_PENDING and FETCH_AUDITS_FULFILLED actions with pagination variables - no sort', async () => {
+    it('dispatches FETCH_AUDITS_PENDING and FETCH_AUDITS_FULFILLED actions with pagination variables - no order', async () => {
       const expectedActions = [
         {
           type: REQUEST(ACTION_TYPES.FETCH_AUDITS),
@@ -295,7 +299,7 @@ describe('Administration reducer tests', () => {
           payload: resolvedObject,
         },
       ];
-      await store.dispatch(getAudits(1, 10, null, Date.now(), Date.now())).then(() => expect(store.getActions()).toEqual(expectedActions));
+      await store.dispatch(getAudits('', 10, null, Date.now(), Date.now())).then(() => expect(store.getActions()).toEqual(expectedActions));
     });
     it('dispatches FETCH_AUDITS_PENDING and FETCH_AUDITS_FULFILLED actions with pagination variables - no dates', async () => {
       const expectedActions = [
@@ -307,7 +311,7 @@ describe('Administration reducer tests', () => {
           payload: resolvedObject,
         },
       ];
-      await store.dispatch(getAudits(1, 10, 'id,desc', null, null)).then(() => expect(store.getActions()).toEqual(expectedActions));
+      await store.dispatch(getAudits('bmV4dA', 10, 'desc', null, null)).then(() => expect(store.getActions()).toEqual(expectedActions));
     });
   });
 });